@@ -1,5 +1,6 @@
 package com.converter.properties2yaml;
 
+import com.converter.properties2yaml.service.ConversionOptions;
 import com.converter.properties2yaml.service.PropertiesToYamlConverter;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -7,6 +8,9 @@ import org.springframework.stereotype.Component;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @Component
 public class CliRunner implements CommandLineRunner {
@@ -18,16 +22,17 @@ public class CliRunner implements CommandLineRunner {
     }
 
     @Override
-    public void run(String... args) throws Exception {
-        if (args.length == 0) {
+    public void run(String... arguments) throws Exception {
+        // Spring Boot has already applied --name=value arguments as properties
+        List<String> argumentList = new ArrayList<>(Arrays.asList(arguments));
+        argumentList.removeIf(CliRunner::isPropertyArgument);
+        if (argumentList.isEmpty()) {
             // No arguments, run as web server (default Spring Boot behavior)
             return;
         }
 
-        if ("--help".equals(args[0]) || "-h".equals(args[0])) {
-            printHelp();
-            System.exit(0);
-        }
+        boolean sourceOrder = argumentList.remove("--source-order");
+        String[] args = argumentList.toArray(new String[0]);
 
         if (args.length < 1) {
             System.err.println("Error: Please provide input file path");
@@ -35,6 +40,11 @@ public class CliRunner implements CommandLineRunner {
             System.exit(1);
         }
 
+        if ("--help".equals(args[0]) || "-h".equals(args[0])) {
+            printHelp();
+            System.exit(0);
+        }
+
         Path inputPath = Paths.get(args[0]);
 
         if (!Files.exists(inputPath)) {
@@ -55,7 +65,8 @@ public class CliRunner implements CommandLineRunner {
         }
 
         try {
-            String yamlContent = converter.convertFile(inputPath);
+            String yamlContent = converter.convertFile(inputPath,
+                    ConversionOptions.defaults().withSourceOrder(sourceOrder));
 
             if ("--stdout".equals(args.length > 1 ? args[1] : "")) {
                 System.out.println(yamlContent);
@@ -70,6 +81,10 @@ public class CliRunner implements CommandLineRunner {
         }
     }
 
+    private static boolean isPropertyArgument(String argument) {
+        return argument.startsWith("--") && argument.indexOf('=') > 2;
+    }
+
     private void printHelp() {
         System.out.println("Properties to YAML Converter");
         System.out.println();
@@ -80,10 +95,23 @@ public class CliRunner implements CommandLineRunner {
         System.out.println("  java -jar properties2yaml.jar <input> --stdout   Convert and print to stdout");
         System.out.println("  java -jar properties2yaml.jar --help             Show this help message");
         System.out.println();
+        System.out.println("Options:");
+        System.out.println("  --source-order   Keep keys in the order they first appear instead of sorting them");
+        System.out.println("  --name=value     Set an application property (see README), e.g. --server.port=9090");
+        System.out.println();
         System.out.println("Web API Endpoints:");
         System.out.println("  POST /api/convert           - JSON body with 'propertiesContent' field");
         System.out.println("  POST /api/convert/text      - Plain text properties content");
         System.out.println("  POST /api/convert/file      - Multipart file upload");
         System.out.println("  POST /api/convert/file/download - Upload and download converted YAML");
+        System.out.println("  POST /api/convert/stream    - Plain text or octet-stream body, YAML streamed back");
+        System.out.println("  POST /api/convert/file/stream - Multipart file upload, YAML download streamed back");
+        System.out.println("  POST /api/convert/batch     - Multipart 'files' or an application/zip body,");
+        System.out.println("                                ZIP of YAML files with a manifest.json");
+        System.out.println("  POST /api/convert/ndjson    - One JSON request per line, one JSON response per line");
+        System.out.println();
+        System.out.println("  /text, /file/download, /stream and /file/stream send an ETag and answer 304 to a");
+        System.out.println("  matching If-None-Match. /stream answers a Content-Digest (sha-256=:<base64>:) of an");
+        System.out.println("  already converted body from the cache without reading the body.");
     }
 }
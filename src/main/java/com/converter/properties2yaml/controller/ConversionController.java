@@ -2,23 +2,52 @@ package com.converter.properties2yaml.controller;
 
 import com.converter.properties2yaml.model.ConversionRequest;
 import com.converter.properties2yaml.model.ConversionResponse;
+import com.converter.properties2yaml.service.BatchConverter;
+import com.converter.properties2yaml.service.ConversionOptions;
 import com.converter.properties2yaml.service.PropertiesToYamlConverter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/convert")
 public class ConversionController {
 
+    private static final MediaType YAML = MediaType.parseMediaType("text/yaml;charset=UTF-8");
+
+    private static final String CONTENT_DIGEST = "Content-Digest";
+
+    /**
+     * The most streamed YAML held back to compare its ETag with {@code If-None-Match}.
+     */
+    private static final int MAX_HELD_YAML = 1 << 20;
+
     private final PropertiesToYamlConverter converter;
+    private final BatchConverter batchConverter;
+    private final ObjectMapper objectMapper;
 
-    public ConversionController(PropertiesToYamlConverter converter) {
+    public ConversionController(PropertiesToYamlConverter converter, BatchConverter batchConverter,
+                                ObjectMapper objectMapper) {
         this.converter = converter;
+        this.batchConverter = batchConverter;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -30,7 +59,7 @@ public class ConversionController {
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ConversionResponse> convert(@RequestBody ConversionRequest request) {
         try {
-            String yamlContent = converter.convert(request.getPropertiesContent(), request.isPreserveComments());
+            String yamlContent = converter.convert(request.getPropertiesContent(), request.toOptions());
             return ResponseEntity.ok(ConversionResponse.success(yamlContent));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -40,16 +69,27 @@ public class ConversionController {
 
     /**
      * Converts properties content from plain text to YAML.
+     * <p>
+     * The YAML carries a strong ETag, and is answered with status 304 and no body if the request
+     * names that ETag in {@code If-None-Match}.
      *
      * @param propertiesContent the properties content as plain text
+     * @param ifNoneMatch       the ETags of the YAML the client already has
      * @return the YAML content as plain text
      */
     @PostMapping(value = "/text", consumes = MediaType.TEXT_PLAIN_VALUE, produces = "text/yaml")
     public ResponseEntity<String> convertText(@RequestBody String propertiesContent,
-                                              @RequestParam(defaultValue = "false") boolean preserveComments) {
+                                              @RequestParam(defaultValue = "false") boolean preserveComments,
+                                              @RequestParam(defaultValue = "false") boolean sourceOrder,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              String ifNoneMatch) {
         try {
-            String yamlContent = converter.convert(propertiesContent, preserveComments);
-            return ResponseEntity.ok(yamlContent);
+            String yamlContent = converter.convert(propertiesContent, options(preserveComments, sourceOrder));
+            String etag = etag(yamlContent.getBytes(StandardCharsets.UTF_8));
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(yamlContent);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("# Error: " + e.getMessage());
         }
@@ -63,10 +103,10 @@ public class ConversionController {
      */
     @PostMapping(value = "/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ConversionResponse> convertFile(@RequestParam("file") MultipartFile file,
-                                                          @RequestParam(defaultValue = "false") boolean preserveComments) {
+                                                          @RequestParam(defaultValue = "false") boolean preserveComments,
+                                                          @RequestParam(defaultValue = "false") boolean sourceOrder) {
         try {
-            String propertiesContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-            String yamlContent = converter.convert(propertiesContent, preserveComments);
+            String yamlContent = convert(file, options(preserveComments, sourceOrder));
             return ResponseEntity.ok(ConversionResponse.success(yamlContent));
         } catch (IOException e) {
             return ResponseEntity.badRequest()
@@ -78,25 +118,28 @@ public class ConversionController {
     }
 
     /**
-     * Downloads the converted YAML as a file.
+     * Downloads the converted YAML as a file, with an ETag like {@link #convertText}.
      *
-     * @param file the uploaded properties file
+     * @param file        the uploaded properties file
+     * @param ifNoneMatch the ETags of the YAML the client already has
      * @return the YAML content as a downloadable file
      */
     @PostMapping(value = "/file/download", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "text/yaml")
     public ResponseEntity<String> convertFileDownload(@RequestParam("file") MultipartFile file,
-                                                      @RequestParam(defaultValue = "false") boolean preserveComments) {
+                                                      @RequestParam(defaultValue = "false") boolean preserveComments,
+                                                      @RequestParam(defaultValue = "false") boolean sourceOrder,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                      String ifNoneMatch) {
         try {
-            String propertiesContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-            String yamlContent = converter.convert(propertiesContent, preserveComments);
-
-            String originalFilename = file.getOriginalFilename();
-            String outputFilename = originalFilename != null
-                    ? originalFilename.replaceAll("\\.properties$", ".yaml")
-                    : "converted.yaml";
+            String yamlContent = convert(file, options(preserveComments, sourceOrder));
+            String etag = etag(yamlContent.getBytes(StandardCharsets.UTF_8));
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
 
             return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=\"" + outputFilename + "\"")
+                    .eTag(etag)
+                    .header("Content-Disposition", "attachment; filename=\"" + yamlFilename(file) + "\"")
                     .body(yamlContent);
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("# Error: Failed to read file: " + e.getMessage());
@@ -104,4 +147,464 @@ public class ConversionController {
             return ResponseEntity.badRequest().body("# Error: Conversion failed: " + e.getMessage());
         }
     }
+
+    /**
+     * Converts a properties request body to YAML, streaming both ways.
+     * <p>
+     * The body is decoded as UTF-8 while it is parsed and the YAML is written to the response
+     * with chunked transfer as it is produced, so neither is held in memory as a whole. A failed
+     * conversion is answered with status 400 and a {@code # Error:} comment.
+     * <p>
+     * The YAML carries a strong ETag like {@link #convertText}. A request that names ETags in
+     * {@code If-None-Match} has up to {@value #MAX_HELD_YAML} bytes of YAML held back, so that
+     * it is answered with status 304 and no body if the YAML's ETag is among them. Other YAML is
+     * sent as it is produced with the ETag in a trailer. A request whose {@code Content-Digest}
+     * header has the SHA-256 digest of a body already converted with the same options is answered
+     * from the converter's cache before its own body is read, so a client that sends
+     * {@code Expect: 100-continue} does not send the body at all.
+     *
+     * @param body          the properties content
+     * @param contentDigest the digests of the body, in the format of RFC 9530
+     * @param ifNoneMatch   the ETags of the YAML the client already has
+     * @param response      the response, for headers and trailers decided while the YAML is sent
+     * @return the YAML content, written as it is produced
+     */
+    @PostMapping(value = "/stream", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = "text/yaml")
+    public ResponseEntity<StreamingResponseBody> convertStream(InputStream body,
+                                                               @RequestParam(defaultValue = "false") boolean preserveComments,
+                                                               @RequestParam(defaultValue = "false") boolean sourceOrder,
+                                                               @RequestHeader(value = CONTENT_DIGEST, required = false)
+                                                               String contentDigest,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                               String ifNoneMatch,
+                                                               HttpServletResponse response) {
+        ConversionOptions options = options(preserveComments, sourceOrder);
+        byte[] digest = sha256(contentDigest);
+        byte[] cached = digest != null ? converter.cached(digest, options) : null;
+        if (cached != null) {
+            return yaml(cached, ifNoneMatch, null);
+        }
+        return stream(body, options, ifNoneMatch, null, response);
+    }
+
+    /**
+     * Converts an uploaded properties file to a YAML download, streaming both ways.
+     * <p>
+     * The upload is read from the stream of its part, which the container buffers on disk, and
+     * the YAML is written to the response as it is produced, with an ETag like
+     * {@link #convertStream}.
+     *
+     * @param file        the uploaded properties file
+     * @param ifNoneMatch the ETags of the YAML the client already has
+     * @param response    the response, for headers and trailers decided while the YAML is sent
+     * @return the YAML content as a downloadable file, written as it is produced
+     */
+    @PostMapping(value = "/file/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "text/yaml")
+    public ResponseEntity<StreamingResponseBody> convertFileStream(@RequestParam("file") MultipartFile file,
+                                                                   @RequestParam(defaultValue = "false") boolean preserveComments,
+                                                                   @RequestParam(defaultValue = "false") boolean sourceOrder,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                                   String ifNoneMatch,
+                                                                   HttpServletResponse response)
+            throws IOException {
+        InputStream body = file.getInputStream();
+        return stream(body, options(preserveComments, sourceOrder), ifNoneMatch,
+                "attachment; filename=\"" + yamlFilename(file) + "\"", response);
+    }
+
+    /**
+     * Converts many uploaded properties files, or ZIP archives of them, to a ZIP of YAML files.
+     * <p>
+     * The files are converted in parallel and the archive is streamed back with the YAML files
+     * in upload order, followed by a {@value BatchConverter#MANIFEST} with the status of each.
+     *
+     * @param files the uploaded properties files and archives
+     * @return the ZIP archive, written as it is produced
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> convertBatch(@RequestParam("files") List<MultipartFile> files,
+                                                              @RequestParam(defaultValue = "false") boolean preserveComments,
+                                                              @RequestParam(defaultValue = "false") boolean sourceOrder) {
+        List<BatchConverter.Source> sources = files.stream().map(ConversionController::source).toList();
+        return batch(sources, options(preserveComments, sourceOrder));
+    }
+
+    /**
+     * Converts the properties files of an uploaded ZIP archive to a ZIP of YAML files, like
+     * {@link #convertBatch}.
+     *
+     * @param body the ZIP archive
+     * @return the ZIP archive, written as it is produced
+     */
+    @PostMapping(value = "/batch", consumes = "application/zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> convertBatchArchive(InputStream body,
+                                                                     @RequestParam(defaultValue = "false") boolean preserveComments,
+                                                                     @RequestParam(defaultValue = "false") boolean sourceOrder) {
+        BatchConverter.Source source = new BatchConverter.Source() {
+            @Override
+            public String name() {
+                return "upload.zip";
+            }
+
+            @Override
+            public InputStream open() {
+                return body;
+            }
+        };
+        return batch(List.of(source), options(preserveComments, sourceOrder));
+    }
+
+    /**
+     * Converts a stream of newline-delimited JSON conversion requests over one connection.
+     * <p>
+     * Each non-blank line is a {@link ConversionRequest}, and one {@link ConversionResponse} line
+     * is written back for it in the same order. The requests are converted in parallel on the
+     * batch workers with a bounded number in flight, so a client that stops reading responses
+     * stops the reading of requests. A line that is not a valid request gets an error response
+     * and the stream continues.
+     *
+     * @param body the request lines
+     * @return the response lines, written as they are produced
+     */
+    @PostMapping(value = "/ndjson", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> convertNdjson(InputStream body) {
+        StreamingResponseBody stream = out -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                batchConverter.pipeline(new BatchConverter.Tasks<String>() {
+                    @Override
+                    public Callable<String> next() throws IOException {
+                        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                            if (!line.isBlank()) {
+                                String request = line;
+                                return () -> convertLine(request);
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean ready() throws IOException {
+                        return reader.ready();
+                    }
+                }, new BatchConverter.Results<String>() {
+                    @Override
+                    public void accept(String response) throws IOException {
+                        writer.write(response);
+                        writer.write('\n');
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        writer.flush();
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
+    }
+
+    /**
+     * Converts one NDJSON request line to its response line.
+     */
+    private String convertLine(String line) throws JsonProcessingException {
+        ConversionResponse response;
+        try {
+            ConversionRequest request = objectMapper.readValue(line, ConversionRequest.class);
+            String yamlContent = converter.convert(request.getPropertiesContent(), request.toOptions());
+            response = ConversionResponse.success(yamlContent);
+        } catch (JsonProcessingException e) {
+            response = ConversionResponse.error("Invalid request: " + e.getOriginalMessage());
+        } catch (Exception e) {
+            response = ConversionResponse.error("Conversion failed: " + e.getMessage());
+        }
+        return objectMapper.writeValueAsString(response);
+    }
+
+    private ResponseEntity<StreamingResponseBody> batch(List<BatchConverter.Source> sources, ConversionOptions options) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header("Content-Disposition", "attachment; filename=\"converted.zip\"")
+                .body(out -> batchConverter.convert(sources, out, options));
+    }
+
+    private static BatchConverter.Source source(MultipartFile file) {
+        return new BatchConverter.Source() {
+            @Override
+            public String name() {
+                String name = file.getOriginalFilename();
+                return name != null && !name.isEmpty() ? name : file.getName() + ".properties";
+            }
+
+            @Override
+            public InputStream open() throws IOException {
+                return file.getInputStream();
+            }
+        };
+    }
+
+    /**
+     * Answers a streamed conversion that failed before any YAML was sent, replacing the headers
+     * of the streamed response. Once YAML has been sent the failure is rethrown, so that the
+     * container aborts the response rather than ending it as if the YAML were complete.
+     */
+    @ExceptionHandler(StreamedConversionException.class)
+    public ResponseEntity<String> handleStreamedConversionFailure(StreamedConversionException e,
+                                                                  HttpServletResponse response) {
+        if (response.isCommitted()) {
+            throw e;
+        }
+        response.reset();
+        return ResponseEntity.badRequest()
+                .contentType(YAML)
+                .body("# Error: Conversion failed: " + e.getCause().getMessage());
+    }
+
+    /**
+     * Answers with the YAML of a body, written as it is converted and tagged by a
+     * {@link TaggedOutputStream}.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(InputStream body, ConversionOptions options,
+                                                         String ifNoneMatch, String disposition,
+                                                         HttpServletResponse response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(YAML);
+        if (disposition != null) {
+            builder.header("Content-Disposition", disposition);
+        }
+        return builder.body(out -> {
+            TaggedOutputStream yaml = new TaggedOutputStream(out, response, ifNoneMatch != null ? MAX_HELD_YAML : 0);
+            try (body) {
+                converter.convert(body, yaml, options);
+            } catch (RuntimeException e) {
+                throw new StreamedConversionException(e);
+            }
+            yaml.finish(ifNoneMatch);
+        });
+    }
+
+    /**
+     * Answers with converted YAML and its ETag, or with status 304 if the client already has it.
+     */
+    private static ResponseEntity<StreamingResponseBody> yaml(byte[] yaml, String ifNoneMatch, String disposition) {
+        String etag = etag(yaml);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(YAML)
+                .contentLength(yaml.length)
+                .eTag(etag);
+        if (disposition != null) {
+            response.header("Content-Disposition", disposition);
+        }
+        return response.body(out -> out.write(yaml));
+    }
+
+    private String convert(MultipartFile file, ConversionOptions options) throws IOException {
+        ByteArrayOutputStream yaml = new ByteArrayOutputStream();
+        try (InputStream in = file.getInputStream()) {
+            converter.convert(in, yaml, options);
+        }
+        return yaml.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the strong ETag of UTF-8 YAML, the hex SHA-256 digest of its bytes.
+     */
+    private static String etag(byte[] yaml) {
+        MessageDigest digest = digest();
+        digest.update(yaml);
+        return etag(digest);
+    }
+
+    /**
+     * Returns the strong ETag of the YAML a SHA-256 digest has been updated with.
+     */
+    private static String etag(MessageDigest digest) {
+        return '"' + HexFormat.of().formatHex(digest.digest()) + '"';
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns whether an {@code If-None-Match} header names an ETag, comparing weakly as RFC 9110
+     * requires for that header.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the SHA-256 digest of a {@code Content-Digest} header such as
+     * {@code sha-256=:X48E9qOokqqrvdts8nOJRJN3OWDUoyWxBf7kbu9DBPE=:}, or {@code null} if it has
+     * none or it is malformed.
+     */
+    private static byte[] sha256(String contentDigest) {
+        if (contentDigest == null) {
+            return null;
+        }
+        for (String member : contentDigest.split(",")) {
+            int equals = member.indexOf('=');
+            if (equals < 0 || !member.substring(0, equals).trim().equalsIgnoreCase("sha-256")) {
+                continue;
+            }
+            String value = member.substring(equals + 1).trim();
+            if (value.length() < 2 || value.charAt(0) != ':' || value.charAt(value.length() - 1) != ':') {
+                return null;
+            }
+            try {
+                return Base64.getDecoder().decode(value.substring(1, value.length() - 1));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String yamlFilename(MultipartFile file) {
+        String originalFilename = file.getOriginalFilename();
+        return originalFilename != null
+                ? originalFilename.replaceAll("\\.properties$", ".yaml")
+                : "converted.yaml";
+    }
+
+    private static ConversionOptions options(boolean preserveComments, boolean sourceOrder) {
+        return ConversionOptions.defaults()
+                .withPreserveComments(preserveComments)
+                .withSourceOrder(sourceOrder);
+    }
+
+    /**
+     * The YAML of a streamed response, hashed for its ETag as it is written.
+     * <p>
+     * Up to a limit the YAML is held back, so that the ETag can be sent as a header and compared
+     * with {@code If-None-Match} before anything is sent. Past the limit, or from the start if
+     * nothing is held, the YAML is sent as it is written and the ETag follows in a trailer, which
+     * RFC 9110 allows for an ETag generated while the content is sent. Responses that cannot have
+     * trailers, such as HTTP/1.0 ones, then go untagged.
+     */
+    private static final class TaggedOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final HttpServletResponse response;
+        private final int limit;
+        private final MessageDigest digest = digest();
+        private ByteArrayOutputStream held;
+        // Read by the container when it writes the trailer
+        private volatile String etag;
+
+        TaggedOutputStream(OutputStream out, HttpServletResponse response, int limit) throws IOException {
+            this.out = out;
+            this.response = response;
+            this.limit = limit;
+            if (limit > 0) {
+                held = new ByteArrayOutputStream();
+            } else {
+                send();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            digest.update((byte) b);
+            if (held != null) {
+                if (held.size() < limit) {
+                    held.write(b);
+                    return;
+                }
+                send();
+            }
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            digest.update(b, off, len);
+            if (held != null) {
+                if (held.size() + (long) len <= limit) {
+                    held.write(b, off, len);
+                    return;
+                }
+                send();
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Flushing held YAML would commit the response before its ETag is known
+            if (held == null) {
+                out.flush();
+            }
+        }
+
+        /**
+         * Starts sending the YAML, after any held so far, with the ETag to follow in a trailer.
+         */
+        private void send() throws IOException {
+            try {
+                response.setTrailerFields(() -> etag != null ? Map.of(HttpHeaders.ETAG, etag) : Map.of());
+                response.setHeader(HttpHeaders.TRAILER, HttpHeaders.ETAG);
+            } catch (IllegalStateException e) {
+                // The response cannot have trailers
+            }
+            if (held != null) {
+                held.writeTo(out);
+                held = null;
+            }
+        }
+
+        /**
+         * Ends the YAML: completes the trailer if it was sent, and otherwise sends it with its
+         * ETag, or answers status 304 without it if the client already has it.
+         */
+        void finish(String ifNoneMatch) throws IOException {
+            etag = etag(digest);
+            if (held == null) {
+                return;
+            }
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (matches(ifNoneMatch, etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setContentLengthLong(held.size());
+            held.writeTo(out);
+        }
+    }
+
+    /**
+     * A conversion that failed while its response was being streamed.
+     */
+    static final class StreamedConversionException extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        StreamedConversionException(RuntimeException cause) {
+            super(cause);
+        }
+    }
 }
@@ -1,9 +1,13 @@
 package com.converter.properties2yaml.model;
 
+import com.converter.properties2yaml.service.ConversionOptions;
+
 public class ConversionRequest {
 
     private String propertiesContent;
     private boolean preserveComments = false;
+    private boolean sourceOrder = false;
+    private ConversionOptions.ListGaps listGaps;
 
     public ConversionRequest() {
     }
@@ -32,4 +36,36 @@ public class ConversionRequest {
     public void setPreserveComments(boolean preserveComments) {
         this.preserveComments = preserveComments;
     }
+
+    /**
+     * Returns whether keys keep the order of their first appearance instead of being sorted.
+     */
+    public boolean isSourceOrder() {
+        return sourceOrder;
+    }
+
+    public void setSourceOrder(boolean sourceOrder) {
+        this.sourceOrder = sourceOrder;
+    }
+
+    /**
+     * Returns how undefined list indices are emitted, or {@code null} for the default.
+     */
+    public ConversionOptions.ListGaps getListGaps() {
+        return listGaps;
+    }
+
+    public void setListGaps(ConversionOptions.ListGaps listGaps) {
+        this.listGaps = listGaps;
+    }
+
+    /**
+     * Returns the conversion options this request asks for.
+     */
+    public ConversionOptions toOptions() {
+        ConversionOptions options = ConversionOptions.defaults()
+                .withPreserveComments(preserveComments)
+                .withSourceOrder(sourceOrder);
+        return listGaps != null ? options.withListGaps(listGaps) : options;
+    }
 }
@@ -0,0 +1,457 @@
+package com.converter.properties2yaml.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Converts many properties files at once and writes the YAML files to a ZIP archive.
+ * <p>
+ * The sources are read one after the other on the calling thread, and each file is converted as a
+ * task on a bounded pool of workers shared by all batches. At most twice as many files as there
+ * are workers are read ahead, so memory stays bounded however many files a batch has. The results
+ * are written to the archive in the order of the sources, waiting for each in turn, so the archive
+ * is the same whichever file finishes first. A source whose name ends in {@code .zip} is expanded,
+ * and its {@code .properties} entries are converted in the order they appear in it. Each entry is
+ * read up to {@code converter.batch.max-entry-bytes} and each archive up to
+ * {@code converter.batch.max-entries} entries, so a small archive that expands to a huge one cannot
+ * exhaust the heap.
+ * <p>
+ * A file that fails to convert does not fail the batch. Every file gets an entry in
+ * {@value #MANIFEST}, written after the YAML files, with its status and its output, the reason it
+ * was skipped or the error.
+ * <p>
+ * {@link #pipeline} runs an open-ended stream of tasks on the same workers in the same order.
+ */
+@Service
+public class BatchConverter {
+
+    /**
+     * The name of the archive entry that lists the status of every file.
+     */
+    public static final String MANIFEST = "manifest.json";
+
+    /**
+     * The uncompressed size of the largest archive entry read when none is configured.
+     */
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The number of entries read from an archive when none is configured.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final ObjectWriter MANIFEST_WRITER = JsonMapper.builder().build().writerWithDefaultPrettyPrinter();
+
+    private final PropertiesToYamlConverter converter;
+    private final ExecutorService workers;
+    private final int window;
+    private final int maxEntryBytes;
+    private final int maxEntries;
+
+    /**
+     * Creates a batch converter with the default archive limits.
+     *
+     * @param converter the converter of each file
+     * @param workers   the number of workers, or one per processor if that is not positive
+     */
+    public BatchConverter(PropertiesToYamlConverter converter, int workers) {
+        this(converter, workers, DEFAULT_MAX_ENTRY_BYTES, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a batch converter with {@code converter.batch-workers} workers, or one per processor
+     * if that is not positive, that reads archive entries up to
+     * {@code converter.batch.max-entry-bytes} and archives up to {@code converter.batch.max-entries}
+     * entries.
+     *
+     * @param converter     the converter of each file
+     * @param workers       the configured number of workers
+     * @param maxEntryBytes the configured uncompressed size of the largest archive entry
+     * @param maxEntries    the configured number of entries read from an archive
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    @Autowired
+    public BatchConverter(PropertiesToYamlConverter converter, @Value("${converter.batch-workers:0}") int workers,
+                          @Value("${converter.batch.max-entry-bytes:" + DEFAULT_MAX_ENTRY_BYTES + "}") int maxEntryBytes,
+                          @Value("${converter.batch.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        if (maxEntryBytes <= 0 || maxEntryBytes > Integer.MAX_VALUE - 8 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Archive limits must be positive: " + maxEntryBytes + " bytes, "
+                    + maxEntries + " entries");
+        }
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxEntries = maxEntries;
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.converter = converter;
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-converter-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.window = threads * 2;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * A named input of a batch.
+     */
+    public interface Source {
+
+        /**
+         * Returns the file name, whose {@code .properties} suffix becomes {@code .yaml} in the
+         * archive, or which is expanded if it ends in {@code .zip}.
+         *
+         * @return the file name
+         */
+        String name();
+
+        /**
+         * Opens the content, which is UTF-8 properties or a ZIP archive.
+         *
+         * @return the content
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Converts the sources and writes a ZIP archive of the YAML files and the manifest. The output
+     * stream is not closed.
+     *
+     * @param sources the files and archives, in the order of the output
+     * @param out     the ZIP sink
+     * @param options the conversion options of every file
+     */
+    public void convert(List<? extends Source> sources, OutputStream out, ConversionOptions options)
+            throws IOException {
+        Batch batch = new Batch(new ZipOutputStream(out), options);
+        try {
+            for (Source source : sources) {
+                if (isArchive(source.name())) {
+                    batch.addArchive(source);
+                } else {
+                    batch.add(source.name(), yaml -> {
+                        try (InputStream in = source.open()) {
+                            converter.convert(in, yaml, options);
+                        }
+                    });
+                }
+            }
+            batch.finish();
+        } finally {
+            batch.cancel();
+        }
+    }
+
+    /**
+     * Runs tasks on the workers as they are read and passes their results on in the order the
+     * tasks were read, for callers that convert a stream of documents rather than a list of files.
+     * <p>
+     * Up to twice as many tasks as there are workers run at once. While that many are running,
+     * or no further task can be read without blocking, the oldest result is waited for and passed
+     * on, so a consumer that stops reading the results stops the reading of tasks too. The results
+     * are flushed whenever the pipeline is about to block, so each is delivered without waiting
+     * for later ones.
+     *
+     * @param tasks   the source of tasks
+     * @param results the consumer of results
+     */
+    public <T> void pipeline(Tasks<T> tasks, Results<T> results) throws IOException {
+        Deque<Future<T>> pending = new ArrayDeque<>();
+        try {
+            boolean reading = true;
+            while (reading || !pending.isEmpty()) {
+                if (reading && pending.size() < window && (pending.isEmpty() || tasks.ready())) {
+                    if (pending.isEmpty()) {
+                        results.flush();
+                    }
+                    Callable<T> task = tasks.next();
+                    if (task != null) {
+                        pending.add(workers.submit(task));
+                    } else {
+                        reading = false;
+                    }
+                } else {
+                    if (!pending.peek().isDone()) {
+                        results.flush();
+                    }
+                    results.accept(result(pending.poll()));
+                }
+            }
+            results.flush();
+        } finally {
+            for (Future<T> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * A source of tasks for {@link #pipeline}.
+     */
+    public interface Tasks<T> {
+
+        /**
+         * Reads the next task, blocking until it is available.
+         *
+         * @return the task, or {@code null} at the end of the input
+         */
+        Callable<T> next() throws IOException;
+
+        /**
+         * Returns whether the next task can probably be read without blocking.
+         *
+         * @return {@code true} if input is available
+         */
+        boolean ready() throws IOException;
+    }
+
+    /**
+     * A consumer of the results of {@link #pipeline}.
+     */
+    public interface Results<T> {
+
+        void accept(T result) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static <T> T result(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch conversion was interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch task failed", e.getCause());
+        }
+    }
+
+    private static boolean isArchive(String name) {
+        return endsWithIgnoreCase(name, ".zip");
+    }
+
+    private static boolean endsWithIgnoreCase(String name, String suffix) {
+        return name.regionMatches(true, name.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    /**
+     * The state of one batch: the files converting in order and the manifest so far.
+     */
+    private final class Batch {
+
+        private final ZipOutputStream zip;
+        private final ConversionOptions options;
+        private final Deque<Future<Result>> pending = new ArrayDeque<>();
+        private final Set<String> outputs = new HashSet<>();
+        private final List<ManifestFile> files = new ArrayList<>();
+        private int converted;
+        private int failed;
+        private int skipped;
+
+        Batch(ZipOutputStream zip, ConversionOptions options) {
+            this.zip = zip;
+            this.options = options;
+        }
+
+        void addArchive(Source source) throws IOException {
+            ZipInputStream archive;
+            try {
+                archive = new ZipInputStream(source.open(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                complete(Result.failed(source.name(), "Failed to read archive: " + e.getMessage()));
+                return;
+            }
+
+            try (archive) {
+                for (int entries = 0; ; entries++) {
+                    ZipEntry entry;
+                    byte[] content = null;
+                    // Only failures to read the archive end it; failures to write the output propagate
+                    try {
+                        entry = archive.getNextEntry();
+                        if (entry == null) {
+                            if (entries == 0) {
+                                complete(Result.failed(source.name(), "Archive has no entries"));
+                            }
+                            return;
+                        }
+                        if (entries == maxEntries) {
+                            complete(Result.failed(source.name(), "Archive has more than " + maxEntries + " entries"));
+                            return;
+                        }
+                        if (!entry.isDirectory() && endsWithIgnoreCase(entry.getName(), ".properties")) {
+                            content = archive.readNBytes(maxEntryBytes + 1);
+                        }
+                    } catch (IOException e) {
+                        complete(Result.failed(source.name(), "Failed to read archive: " + e.getMessage()));
+                        return;
+                    }
+
+                    if (content != null && content.length > maxEntryBytes) {
+                        complete(Result.failed(entry.getName(), "Entry is larger than " + maxEntryBytes + " bytes"));
+                    } else if (content != null) {
+                        byte[] properties = content;
+                        add(entry.getName(), yaml -> converter.convert(properties, yaml, options));
+                    } else if (!entry.isDirectory()) {
+                        complete(Result.skipped(entry.getName(), "Not a .properties file"));
+                    }
+                }
+            }
+        }
+
+        void add(String name, Conversion conversion) throws IOException {
+            String output = outputName(name);
+            await(window - 1);
+            pending.add(workers.submit(() -> convert(name, output, conversion)));
+        }
+
+        private Result convert(String name, String output, Conversion conversion) {
+            ByteArrayOutputStream yaml = new ByteArrayOutputStream();
+            try {
+                conversion.writeTo(yaml);
+                return Result.converted(name, output, yaml.toByteArray());
+            } catch (IOException e) {
+                return Result.failed(name, "Failed to read file: " + e.getMessage());
+            } catch (RuntimeException e) {
+                return Result.failed(name, "Conversion failed: " + e.getMessage());
+            }
+        }
+
+        private void complete(Result result) throws IOException {
+            await(window - 1);
+            pending.add(CompletableFuture.completedFuture(result));
+        }
+
+        /**
+         * Writes the oldest results until at most {@code limit} are pending.
+         */
+        private void await(int limit) throws IOException {
+            while (pending.size() > limit) {
+                write(result(pending.poll()));
+            }
+        }
+
+        private void write(Result result) throws IOException {
+            if (result.yaml() != null) {
+                zip.putNextEntry(new ZipEntry(result.output()));
+                zip.write(result.yaml());
+                zip.closeEntry();
+            }
+            switch (result.status()) {
+                case CONVERTED -> converted++;
+                case FAILED -> failed++;
+                case SKIPPED -> skipped++;
+            }
+            files.add(ManifestFile.of(result));
+        }
+
+        void finish() throws IOException {
+            await(0);
+            zip.putNextEntry(new ZipEntry(MANIFEST));
+            // Written as bytes, since the writer would close the archive after the value
+            zip.write(MANIFEST_WRITER.writeValueAsBytes(new Manifest(converted, failed, skipped, files)));
+            zip.write('\n');
+            zip.closeEntry();
+            zip.finish();
+        }
+
+        /**
+         * Cancels the files still converting when the batch ends early.
+         */
+        void cancel() {
+            for (Future<Result> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+        }
+
+        /**
+         * Returns the archive path of a file's YAML: its relative path with {@code .yaml} for
+         * {@code .properties}, numbered if an earlier file of the batch already has it.
+         */
+        private String outputName(String name) {
+            StringJoiner path = new StringJoiner("/");
+            for (String segment : name.replace('\\', '/').split("/")) {
+                if (!segment.isEmpty() && !segment.equals(".") && !segment.equals("..")) {
+                    path.add(segment);
+                }
+            }
+            String base = path.length() == 0 ? "converted" : path.toString();
+            base = endsWithIgnoreCase(base, ".properties") ? base.substring(0, base.length() - 11) : base;
+
+            String output = base + ".yaml";
+            for (int copy = 2; !outputs.add(output); copy++) {
+                output = base + "-" + copy + ".yaml";
+            }
+            return output;
+        }
+    }
+
+    private interface Conversion {
+        void writeTo(OutputStream yaml) throws IOException;
+    }
+
+    /**
+     * The outcome of one file: its YAML if it converted, and its manifest entry.
+     *
+     * @param detail the error of a failed file or the reason a file was skipped
+     */
+    private record Result(String source, String output, Status status, String detail, byte[] yaml) {
+
+        static Result converted(String source, String output, byte[] yaml) {
+            return new Result(source, output, Status.CONVERTED, null, yaml);
+        }
+
+        static Result failed(String source, String error) {
+            return new Result(source, null, Status.FAILED, error, null);
+        }
+
+        static Result skipped(String source, String reason) {
+            return new Result(source, null, Status.SKIPPED, reason, null);
+        }
+    }
+
+    private enum Status {
+        @JsonProperty("converted") CONVERTED,
+        @JsonProperty("failed") FAILED,
+        @JsonProperty("skipped") SKIPPED
+    }
+
+    /**
+     * The content of {@value #MANIFEST}.
+     */
+    private record Manifest(int converted, int failed, int skipped, List<ManifestFile> files) {
+    }
+
+    /**
+     * The manifest entry of one file, without the fields that do not apply to its status.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record ManifestFile(String source, Status status, String output, String error, String reason) {
+
+        static ManifestFile of(Result result) {
+            return new ManifestFile(result.source(), result.status(), result.output(),
+                    result.status() == Status.FAILED ? result.detail() : null,
+                    result.status() == Status.SKIPPED ? result.detail() : null);
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.converter.properties2yaml.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes sink events as block YAML with the comments of each property above its line.
+ * <p>
+ * The comments are read from a {@link PropertiesParser.ParseResult}. The commented entries are
+ * indexed by the hash of the {@link KeyPath} tokens of their property key, and the sink extends
+ * the hash of the enclosing container by each key or list position it sees, so a value finds its
+ * comments without the property key being rebuilt as a string. Indentation comes
+ * from a table of prebuilt strings. Top-level entries are separated by a blank line.
+ * <p>
+ * Multi-line strings are written as literal block scalars and strings of at least
+ * {@link #FOLD_THRESHOLD} characters as folded ones, line by line as slices of the value, so a
+ * PEM certificate or a large JSON document is neither escaped nor written as one line.
+ */
+final class CommentingYamlSink implements YamlSink {
+
+    private static final String[] INDENTS = new String[32];
+
+    static {
+        for (int level = 0; level < INDENTS.length; level++) {
+            INDENTS[level] = "  ".repeat(level);
+        }
+    }
+
+    // Classes of ASCII characters in string values
+    private static final byte INDICATOR = 1;
+    private static final byte CONTROL = 1 << 1;
+    private static final byte ESCAPED = 1 << 2;
+    private static final byte[] CHAR_CLASSES = new byte[128];
+
+    static {
+        for (char ch : ":#\"'[]{}>|&*".toCharArray()) {
+            CHAR_CLASSES[ch] |= INDICATOR;
+        }
+        for (char ch = 0; ch < ' '; ch++) {
+            CHAR_CLASSES[ch] |= CONTROL | ESCAPED;
+        }
+        CHAR_CLASSES['"'] |= ESCAPED;
+        CHAR_CLASSES['\\'] |= ESCAPED;
+    }
+
+    /**
+     * The length from which a single-line string that can be broken at spaces is folded. At about
+     * a dozen lines of {@link #FOLD_WIDTH} columns, descriptions and messages stay on one line as
+     * before, and only document-sized values such as inline policies are folded.
+     */
+    static final int FOLD_THRESHOLD = 1024;
+
+    private static final int FOLD_WIDTH = 80;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final String[] RESERVED_WORDS = {"true", "false", "null", "yes", "no"};
+
+    private final Writer out;
+    private final PropertiesParser.ParseResult parseResult;
+    private final CommentIndex comments;
+    private String[] indents = INDENTS;
+
+    // Per open container: the hash of its path, the key or position that reached it, and
+    // whether it has entries yet
+    private long[] pathHashes = new long[8];
+    private String[] names = new String[8];
+    private int[] positions = new int[8];
+    private boolean[] started = new boolean[8];
+    private int depth = -1;
+
+    private String pendingKey;
+    private int pendingPosition;
+    private long pendingHash;
+    private boolean pendingElement;
+
+    /**
+     * @param out         the YAML sink
+     * @param parseResult the parsed entries, whose comments are written before their keys and
+     *                    whose header comments are written at the top of the document
+     * @param order       the indices of the entries in the order they are written
+     */
+    CommentingYamlSink(Writer out, PropertiesParser.ParseResult parseResult, int[] order) {
+        this.out = out;
+        this.parseResult = parseResult;
+        this.comments = new CommentIndex(parseResult, order);
+    }
+
+    @Override
+    public void begin() throws IOException {
+        int headerComments = parseResult.headerCommentCount();
+        if (headerComments > 0) {
+            for (int comment = 0; comment < headerComments; comment++) {
+                out.write("# ");
+                parseResult.writeComment(comment, out);
+                out.write('\n');
+            }
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void startMap() throws IOException {
+        open();
+    }
+
+    @Override
+    public void endMap() {
+        depth--;
+    }
+
+    @Override
+    public void startList() throws IOException {
+        open();
+    }
+
+    @Override
+    public void endList() {
+        depth--;
+    }
+
+    @Override
+    public void key(String name) throws IOException {
+        if (depth == 0 && started[depth]) {
+            out.append("\n");
+        }
+        started[depth] = true;
+
+        pendingKey = name;
+        pendingHash = KeyPath.pathHash(pathHashes[depth], KeyPath.keyHash(name));
+        pendingElement = false;
+        writeComments();
+    }
+
+    @Override
+    public void element(int position) throws IOException {
+        started[depth] = true;
+        pendingKey = null;
+        pendingPosition = position;
+        pendingHash = KeyPath.pathHash(pathHashes[depth], KeyPath.indexHash(position));
+        pendingElement = true;
+        // A gap was never defined, so nothing can be commented
+        if (position >= 0) {
+            writeComments();
+        }
+    }
+
+    @Override
+    public void scalar(byte type, long bits, String text) throws IOException {
+        if (pendingElement) {
+            out.append(indent(depth)).append("- ");
+        } else {
+            out.append(indent(depth)).append(pendingKey).append(": ");
+        }
+        writeValue(type, bits, text);
+        out.append("\n");
+    }
+
+    @Override
+    public void end() {
+    }
+
+    private void open() throws IOException {
+        if (depth >= 0) {
+            if (pendingElement) {
+                out.append(indent(depth)).append("-\n");
+            } else {
+                out.append(indent(depth)).append(pendingKey).append(":\n");
+            }
+        }
+
+        depth++;
+        if (depth == pathHashes.length) {
+            int capacity = depth * 2;
+            pathHashes = Arrays.copyOf(pathHashes, capacity);
+            names = Arrays.copyOf(names, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            started = Arrays.copyOf(started, capacity);
+        }
+        pathHashes[depth] = depth == 0 ? 0 : pendingHash;
+        names[depth] = pendingKey;
+        positions[depth] = pendingPosition;
+        started[depth] = false;
+    }
+
+    private String indent(int level) {
+        if (level >= indents.length) {
+            String[] grown = Arrays.copyOf(indents, level * 2);
+            for (int i = indents.length; i < grown.length; i++) {
+                grown[i] = "  ".repeat(i);
+            }
+            indents = grown;
+        }
+        return indents[level];
+    }
+
+    private void writeComments() throws IOException {
+        int entry = comments.find(this);
+        if (entry >= 0) {
+            for (int comment = parseResult.commentStart(entry); comment < parseResult.commentEnd(entry); comment++) {
+                out.write(indent(depth));
+                out.write("# ");
+                parseResult.writeComment(comment, out);
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Returns whether a tokenized property key is the path of the pending key or element.
+     */
+    private boolean isPendingPath(KeyPath path) {
+        if (path.size() != depth + 1) {
+            return false;
+        }
+        for (int token = 0; token <= depth; token++) {
+            boolean last = token == depth;
+            String name = last ? pendingKey : names[token + 1];
+            int position = last ? pendingPosition : positions[token + 1];
+            if (name == null) {
+                if (path.kind(token) != KeyPath.Kind.INDEX || path.index(token) != position) {
+                    return false;
+                }
+            } else if (path.kind(token) == KeyPath.Kind.INDEX
+                    || path.end(token) - path.start(token) != name.length()
+                    || !path.key().startsWith(name, path.start(token))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeValue(byte type, long bits, String text) throws IOException {
+        switch (type) {
+            case KeyTree.STRING -> writeString(text);
+            case KeyTree.BOOLEAN -> out.write(bits != 0 ? "true" : "false");
+            case KeyTree.INTEGER, KeyTree.LONG -> out.write(Long.toString(bits));
+            case KeyTree.DOUBLE -> out.write(Double.toString(Double.longBitsToDouble(bits)));
+            default -> out.write("null");
+        }
+    }
+
+    /**
+     * Writes a string as a block scalar if it is multi-line or long, plain if it reads back as
+     * the same string and double-quoted otherwise, escaping it straight into the output.
+     */
+    private void writeString(String value) throws IOException {
+        boolean quoted = needsQuoting(value);
+        boolean block = value.length() >= FOLD_THRESHOLD || (quoted && value.indexOf('\n') >= 0);
+        if (block && writeBlock(value)) {
+            return;
+        }
+        if (!quoted) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch < 128 && (CHAR_CLASSES[ch] & ESCAPED) != 0) {
+                out.write(value, start, i - start);
+                writeEscape(ch);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, length - start);
+        out.write('"');
+    }
+
+    /**
+     * Writes a string as a literal block scalar if it has line breaks, or as a folded one if it
+     * can be broken at single spaces, with every line written as a slice of the string. Strings
+     * that a block scalar could not represent exactly are left to the caller: those with
+     * characters that need escaping, a leading space or line break, or more than one trailing
+     * line break, which the blank line between top-level entries would extend.
+     *
+     * @return whether the string was written
+     */
+    private boolean writeBlock(String value) throws IOException {
+        int length = value.length();
+        if (value.charAt(0) <= ' ' || value.endsWith("\n\n")) {
+            return false;
+        }
+        boolean multiline = false;
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch == '\n') {
+                multiline = true;
+            } else if (!isBlockChar(ch)) {
+                return false;
+            }
+        }
+
+        if (multiline) {
+            writeLiteral(value);
+            return true;
+        }
+        // A folded line that starts or ends with whitespace would not fold back into the same string
+        return value.charAt(length - 1) > ' ' && writeFolded(value);
+    }
+
+    private void writeLiteral(String value) throws IOException {
+        int length = value.length();
+        out.write(value.charAt(length - 1) == '\n' ? "|" : "|-");
+        String indent = indent(depth + 1);
+        int start = 0;
+        while (start < length) {
+            int end = value.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            out.write('\n');
+            if (end > start) {
+                out.write(indent);
+                out.write(value, start, end - start);
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Writes a single-line string as a folded block scalar, breaking it at the first single space
+     * past {@link #FOLD_WIDTH} columns on each line. Returns {@code false} without writing if the
+     * string has no such space.
+     */
+    private boolean writeFolded(String value) throws IOException {
+        String indent = indent(depth + 1);
+        int width = Math.max(FOLD_WIDTH - indent.length(), 1);
+        int length = value.length();
+        int start = 0;
+        for (int i = width; i < length - 1; i++) {
+            if (value.charAt(i) == ' ' && value.charAt(i - 1) > ' ' && value.charAt(i + 1) > ' ') {
+                if (start == 0) {
+                    out.write(">-");
+                }
+                out.write('\n');
+                out.write(indent);
+                out.write(value, start, i - start);
+                start = i + 1;
+                i += width;
+            }
+        }
+        if (start == 0) {
+            return false;
+        }
+        out.write('\n');
+        out.write(indent);
+        out.write(value, start, length - start);
+        return true;
+    }
+
+    /**
+     * Returns whether a character other than a line break can be written as is in a block
+     * scalar: a tab or a printable character that YAML does not treat as a line break.
+     */
+    private static boolean isBlockChar(char ch) {
+        if (ch < 128) {
+            return ch >= ' ' ? ch != 0x7F : ch == '\t';
+        }
+        return ch > 0x9F && ch != '\u2028' && ch != '\u2029' && ch != '\uFEFF' && ch < '\uFFFE';
+    }
+
+    private void writeEscape(char ch) throws IOException {
+        switch (ch) {
+            case '\\' -> out.write("\\\\");
+            case '"' -> out.write("\\\"");
+            case '\n' -> out.write("\\n");
+            case '\r' -> out.write("\\r");
+            case '\t' -> out.write("\\t");
+            default -> {
+                out.write("\\x");
+                out.write(HEX_DIGITS[ch >> 4]);
+                out.write(HEX_DIGITS[ch & 0xF]);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a string must be quoted: it is empty, starts or ends with whitespace or a
+     * control character, contains an indicator or control character, or is a boolean or null
+     * word. Every character is classified once through {@link #CHAR_CLASSES}.
+     */
+    private static boolean needsQuoting(String value) {
+        int length = value.length();
+        if (length == 0 || value.charAt(0) <= ' ' || value.charAt(length - 1) <= ' ') {
+            return true;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch < 128 && (CHAR_CLASSES[ch] & (INDICATOR | CONTROL)) != 0) {
+                return true;
+            }
+        }
+        return length <= 5 && isReservedWord(value);
+    }
+
+    /**
+     * Returns whether a string is {@code true}, {@code false}, {@code null}, {@code yes} or
+     * {@code no} in any case.
+     */
+    private static boolean isReservedWord(String value) {
+        for (String word : RESERVED_WORDS) {
+            if (word.length() == value.length() && matchesLowerCase(value, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesLowerCase(String value, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch += 'a' - 'A';
+            }
+            if (ch != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing table from the path hash of each commented property key to its entry. Only
+     * the entry index is stored: the key is tokenized again when its hash matches, so indexing
+     * allocates no path per key. A key whose tokens address the same node as an earlier one
+     * replaces its entry, as the later definition replaces the value.
+     */
+    private static final class CommentIndex {
+
+        private final PropertiesParser.ParseResult parseResult;
+        private final long[] hashes;
+        // The entry in each slot plus one, so that zero marks an empty slot
+        private final int[] entries;
+        private final KeyPath path = new KeyPath();
+        private final KeyPath other = new KeyPath();
+
+        CommentIndex(PropertiesParser.ParseResult parseResult, int[] order) {
+            this.parseResult = parseResult;
+            int commented = 0;
+            for (int entry : order) {
+                if (parseResult.hasComments(entry)) {
+                    commented++;
+                }
+            }
+            int capacity = Integer.highestOneBit(Math.max(commented, 1) * 4);
+            hashes = new long[capacity];
+            entries = new int[capacity];
+            for (int entry : order) {
+                if (parseResult.hasComments(entry)) {
+                    put(entry);
+                }
+            }
+        }
+
+        private void put(int entry) {
+            path.tokenize(parseResult.key(entry));
+            long hash = 0;
+            for (int token = 0; token < path.size(); token++) {
+                hash = KeyPath.pathHash(hash, path.tokenHash(token));
+            }
+            int mask = hashes.length - 1;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (entries[slot] != 0 && !(hashes[slot] == hash && samePath(entries[slot] - 1))) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            entries[slot] = entry + 1;
+        }
+
+        /**
+         * Returns whether the key of an entry has the tokens of the path last tokenized.
+         */
+        private boolean samePath(int entry) {
+            other.tokenize(parseResult.key(entry));
+            if (other.size() != path.size()) {
+                return false;
+            }
+            for (int token = 0; token < path.size(); token++) {
+                if (!path.sameToken(token, other)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the entry whose comments belong to the pending key or element of a sink, or -1.
+         */
+        int find(CommentingYamlSink sink) {
+            long hash = sink.pendingHash;
+            int mask = hashes.length - 1;
+            for (int slot = (int) (hash ^ (hash >>> 32)) & mask; entries[slot] != 0; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && sink.isPendingPath(path.tokenize(parseResult.key(entries[slot] - 1)))) {
+                    return entries[slot] - 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
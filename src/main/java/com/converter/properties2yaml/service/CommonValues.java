@@ -0,0 +1,90 @@
+package com.converter.properties2yaml.service;
+
+/**
+ * Immutable cache of property values that recur across files: booleans, small numbers and ports,
+ * hosts, log levels, durations and sizes.
+ * <p>
+ * The parser looks a value up by the characters of its source range before it creates a string,
+ * so every {@code true}, {@code 0} or {@code localhost} of every conversion shares one instance.
+ * The table is built once and never written, so it is read without synchronization.
+ */
+final class CommonValues {
+
+    private static final String[] VALUES = {
+            "", "true", "false", "TRUE", "FALSE", "True", "False", "yes", "no", "on", "off", "ON", "OFF",
+            "-1", "80", "443", "1000", "1024", "3000", "3306", "5000", "5432", "6379", "8080", "8081",
+            "8443", "9000", "9090", "9092", "9200", "27017", "60000",
+            "localhost", "127.0.0.1", "0.0.0.0", "::1", "*", "/", "none", "NONE", "always", "never",
+            "ALWAYS", "NEVER", "TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL", "trace", "debug",
+            "info", "warn", "error", "UTF-8", "utf-8", "update", "validate", "create", "create-drop",
+            "1s", "5s", "10s", "30s", "60s", "1m", "5m", "10m", "30m", "1h", "1d", "1MB", "10MB", "100MB",
+    };
+
+    private static final int SMALL_NUMBERS = 128;
+
+    private static final int MAX_LENGTH = 11;
+
+    private static final String[] TABLE = new String[512];
+
+    static {
+        for (String value : VALUES) {
+            add(value);
+        }
+        for (int number = 0; number < SMALL_NUMBERS; number++) {
+            add(Integer.toString(number));
+        }
+    }
+
+    private CommonValues() {
+    }
+
+    private static void add(String value) {
+        int mask = TABLE.length - 1;
+        int slot = value.hashCode() & mask;
+        while (TABLE[slot] != null) {
+            if (TABLE[slot].equals(value)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        TABLE[slot] = value;
+    }
+
+    /**
+     * Returns the shared instance of the text in a range of the current line.
+     *
+     * @param source the source positioned on the line
+     * @param start  the start of the value
+     * @param end    the end of the value
+     * @return the shared value, or {@code null} if the text is not a common value
+     */
+    static String find(PropertiesSource source, int start, int end) {
+        int length = end - start;
+        if (length > MAX_LENGTH) {
+            return null;
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+
+        int mask = TABLE.length - 1;
+        for (int slot = hash & mask; TABLE[slot] != null; slot = (slot + 1) & mask) {
+            String value = TABLE[slot];
+            if (value.hashCode() == hash && value.length() == length && matches(source, start, value)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(PropertiesSource source, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (source.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,402 @@
+package com.converter.properties2yaml.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of converted YAML keyed by the content of the properties and the conversion options.
+ * <p>
+ * The key is the SHA-256 digest of the UTF-8 properties together with the options, so identical
+ * content converted through any entry point finds the same entry, and content cannot be crafted
+ * to collide with another document's entry. The YAML is stored as UTF-8 bytes, on the heap or in
+ * direct buffers outside it, and a hit is served from those bytes without parsing again.
+ * <p>
+ * The cache is bounded by the total bytes of its entries rather than by their number: adding an
+ * entry evicts the least recently used ones until the entries fit, and documents larger than
+ * {@link #maxEntryBytes()} are not cached at all. Access is synchronized; a lookup holds the
+ * lock only for the map operation, never during a conversion, so two threads that miss on the
+ * same content both convert it.
+ */
+public final class ConversionCache {
+
+    // Bytes charged per entry besides the YAML, for the key, its digest and the map entry
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final LinkedHashMap<Key, ByteBuffer> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes the maximum total size of the entries
+     * @param offHeap  whether the YAML is stored in direct buffers outside the heap
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public ConversionCache(long maxBytes, boolean offHeap) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Returns the size of the largest properties document that is cached, a sixteenth of the
+     * cache so that one document cannot flush most of it.
+     *
+     * @return the size in UTF-8 bytes
+     */
+    public long maxEntryBytes() {
+        return maxBytes / 16;
+    }
+
+    /**
+     * Returns the key of a document read as UTF-8 bytes.
+     *
+     * @param properties the properties as UTF-8
+     * @param options    the conversion options
+     * @return the key, or {@code null} if the document is too large to cache
+     */
+    Key key(byte[] properties, ConversionOptions options) {
+        if (properties.length > maxEntryBytes()) {
+            return null;
+        }
+        return new Key(sha256().digest(properties), options);
+    }
+
+    /**
+     * Returns a recorder for a document converted as it streams, which computes its key while it
+     * is read and copies its YAML while it is written, so that it can be stored without holding
+     * the input.
+     *
+     * @param options the conversion options
+     * @return the recorder
+     */
+    Recorder recorder(ConversionOptions options) {
+        return new Recorder(options);
+    }
+
+    /**
+     * Returns the key of a document from the SHA-256 digest of its UTF-8 properties, as computed
+     * by a client that has not sent them.
+     *
+     * @param digest  the SHA-256 digest
+     * @param options the conversion options
+     * @return the key, or {@code null} if the digest is not 32 bytes long
+     */
+    Key digestKey(byte[] digest, ConversionOptions options) {
+        return digest.length == 32 ? new Key(digest.clone(), options) : null;
+    }
+
+    /**
+     * Returns the key of a document held as a string, which is that of its UTF-8 bytes.
+     *
+     * @param properties the properties
+     * @param options    the conversion options
+     * @return the key, or {@code null} if the document is too large to cache or has an unpaired
+     * surrogate, which UTF-8 cannot represent
+     */
+    Key key(String properties, ConversionOptions options) {
+        if (properties.length() > maxEntryBytes() || hasUnpairedSurrogate(properties)) {
+            return null;
+        }
+        return key(properties.getBytes(StandardCharsets.UTF_8), options);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean hasUnpairedSurrogate(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the YAML of a document, counting a hit or a miss.
+     *
+     * @return the UTF-8 YAML, which must not be modified, or {@code null} if it is not cached
+     */
+    byte[] get(Key key) {
+        ByteBuffer yaml;
+        synchronized (this) {
+            yaml = entries.get(key);
+        }
+        if (yaml == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (yaml.hasArray()) {
+            return yaml.array();
+        }
+        byte[] copy = new byte[yaml.capacity()];
+        yaml.duplicate().get(copy);
+        return copy;
+    }
+
+    /**
+     * Stores the YAML of a document, evicting the least recently used entries until it fits.
+     *
+     * @param key  the key of the document
+     * @param yaml the UTF-8 YAML, which must not be modified afterwards
+     */
+    void put(Key key, byte[] yaml) {
+        long size = yaml.length + ENTRY_OVERHEAD;
+        if (size > maxBytes) {
+            return;
+        }
+        ByteBuffer stored;
+        if (offHeap) {
+            stored = ByteBuffer.allocateDirect(yaml.length).put(yaml);
+            stored.clear();
+        } else {
+            stored = ByteBuffer.wrap(yaml);
+        }
+
+        synchronized (this) {
+            ByteBuffer previous = entries.put(key, stored);
+            bytes += size - (previous != null ? previous.capacity() + ENTRY_OVERHEAD : 0);
+            Iterator<Map.Entry<Key, ByteBuffer>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().getValue().capacity() + ENTRY_OVERHEAD;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum total size of the entries.
+     *
+     * @return the size in bytes
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the total size of the entries, including a fixed overhead per entry.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of cached documents.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns whether the YAML is stored outside the heap.
+     *
+     * @return {@code true} for direct buffers
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Returns the number of lookups that were served from the cache.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to convert.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for others.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Records a document and its YAML as they stream through one conversion. Reading the input
+     * updates its digest and writing the YAML keeps a copy, until either grows past a cache entry
+     * and the recorder gives up.
+     */
+    final class Recorder {
+
+        private final ConversionOptions options;
+        private final MessageDigest digest = sha256();
+        private final ByteArrayOutputStream yaml = new ByteArrayOutputStream();
+        private long read;
+        private boolean ended;
+        private boolean abandoned;
+
+        private Recorder(ConversionOptions options) {
+            this.options = options;
+        }
+
+        /**
+         * Returns the input stream of the properties, recording what is read from it.
+         *
+         * @param in the properties source
+         * @return the recording stream, which does not support marks or skipping
+         */
+        InputStream input(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b < 0) {
+                        ended = true;
+                    } else if (keep(1)) {
+                        digest.update((byte) b);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n < 0) {
+                        ended = true;
+                    } else if (keep(n)) {
+                        digest.update(b, off, n);
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) {
+                    // Skipped bytes would be missing from the digest
+                    return 0;
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Returns the output stream of the YAML, keeping a copy of what is written to it.
+         *
+         * @param out the YAML sink
+         * @return the recording stream
+         */
+        OutputStream output(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    if (!abandoned && yaml.size() < maxEntryBytes()) {
+                        yaml.write(b);
+                    } else {
+                        abandon();
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    if (!abandoned && yaml.size() + (long) len <= maxEntryBytes()) {
+                        yaml.write(b, off, len);
+                    } else {
+                        abandon();
+                    }
+                }
+            };
+        }
+
+        /**
+         * Stores the recorded YAML if the whole input was read and both fit in an entry.
+         */
+        void store() {
+            if (ended && !abandoned) {
+                put(new Key(digest.digest(), options), yaml.toByteArray());
+            }
+        }
+
+        private boolean keep(int n) {
+            read += n;
+            if (read > maxEntryBytes()) {
+                abandon();
+            }
+            return !abandoned;
+        }
+
+        private void abandon() {
+            if (!abandoned) {
+                abandoned = true;
+                yaml.reset();
+            }
+        }
+    }
+
+    /**
+     * The digest of a document's properties and the options it is converted with.
+     */
+    static final class Key {
+
+        private final byte[] digest;
+        private final ConversionOptions options;
+        private final int hash;
+
+        Key(byte[] digest, ConversionOptions options) {
+            this.digest = digest;
+            this.options = options;
+            this.hash = 31 * Arrays.hashCode(digest) + options.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(digest, key.digest) && options.equals(key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.converter.properties2yaml.service;
+
+import java.util.Objects;
+
+/**
+ * Immutable set of flags that control a single conversion.
+ */
+public final class ConversionOptions {
+
+    /**
+     * How list indices that were never defined, such as index 1 when only {@code items[0]} and
+     * {@code items[2]} are present, appear in the output.
+     */
+    public enum ListGaps {
+        /** Drop the gaps and renumber the defined elements consecutively. */
+        COMPACT,
+        /** Emit {@code null} for each missing index, up to {@link #getMaxListGapFill()} per list. */
+        NULL_FILL,
+        /** Fail the conversion when any list has a gap. */
+        REJECT
+    }
+
+    public static final int DEFAULT_MAX_LIST_GAP_FILL = 1000;
+
+    private static final ConversionOptions DEFAULTS =
+            new ConversionOptions(false, false, ListGaps.NULL_FILL, DEFAULT_MAX_LIST_GAP_FILL, false);
+
+    private final boolean preserveComments;
+    private final boolean sourceOrder;
+    private final ListGaps listGaps;
+    private final int maxListGapFill;
+    private final boolean snakeYamlEmitter;
+
+    private ConversionOptions(boolean preserveComments, boolean sourceOrder, ListGaps listGaps, int maxListGapFill,
+                              boolean snakeYamlEmitter) {
+        this.preserveComments = preserveComments;
+        this.sourceOrder = sourceOrder;
+        this.listGaps = listGaps;
+        this.maxListGapFill = maxListGapFill;
+        this.snakeYamlEmitter = snakeYamlEmitter;
+    }
+
+    /**
+     * Returns the options used by {@link PropertiesToYamlConverter#convert(String)}.
+     *
+     * @return the default options
+     */
+    public static ConversionOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public boolean isPreserveComments() {
+        return preserveComments;
+    }
+
+    /**
+     * Returns whether keys are written in the order they first appear in the input instead of
+     * being sorted. Nested keys are grouped under the first appearance of their parent.
+     */
+    public boolean isSourceOrder() {
+        return sourceOrder;
+    }
+
+    public ListGaps getListGaps() {
+        return listGaps;
+    }
+
+    /**
+     * Returns the largest number of {@code null} entries a single list may be padded with under
+     * {@link ListGaps#NULL_FILL}. A list that needs more fails the conversion.
+     */
+    public int getMaxListGapFill() {
+        return maxListGapFill;
+    }
+
+    /**
+     * Returns whether uncommented output is written through SnakeYAML's emitter instead of the
+     * built-in one. Both produce the same bytes; SnakeYAML is kept for comparison.
+     */
+    public boolean isSnakeYamlEmitter() {
+        return snakeYamlEmitter;
+    }
+
+    public ConversionOptions withPreserveComments(boolean preserveComments) {
+        return new ConversionOptions(preserveComments, sourceOrder, listGaps, maxListGapFill, snakeYamlEmitter);
+    }
+
+    public ConversionOptions withSourceOrder(boolean sourceOrder) {
+        return new ConversionOptions(preserveComments, sourceOrder, listGaps, maxListGapFill, snakeYamlEmitter);
+    }
+
+    public ConversionOptions withListGaps(ListGaps listGaps) {
+        return new ConversionOptions(preserveComments, sourceOrder, listGaps, maxListGapFill, snakeYamlEmitter);
+    }
+
+    public ConversionOptions withMaxListGapFill(int maxListGapFill) {
+        if (maxListGapFill < 0) {
+            throw new IllegalArgumentException("maxListGapFill must not be negative: " + maxListGapFill);
+        }
+        return new ConversionOptions(preserveComments, sourceOrder, listGaps, maxListGapFill, snakeYamlEmitter);
+    }
+
+    public ConversionOptions withSnakeYamlEmitter(boolean snakeYamlEmitter) {
+        return new ConversionOptions(preserveComments, sourceOrder, listGaps, maxListGapFill, snakeYamlEmitter);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ConversionOptions options)) {
+            return false;
+        }
+        return preserveComments == options.preserveComments && sourceOrder == options.sourceOrder
+                && listGaps == options.listGaps && maxListGapFill == options.maxListGapFill
+                && snakeYamlEmitter == options.snakeYamlEmitter;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(preserveComments, sourceOrder, listGaps, maxListGapFill, snakeYamlEmitter);
+    }
+}
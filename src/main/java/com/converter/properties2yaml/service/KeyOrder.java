@@ -0,0 +1,192 @@
+package com.converter.properties2yaml.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Orders property keys by configurable prefix groups and then alphabetically.
+ * <p>
+ * The groups are lists of key prefixes, highest priority first. A key ranks in the group of the
+ * longest prefix it starts with, and keys that match no prefix rank after every group. The
+ * prefixes are compiled into a trie held in flat arrays, so each key is ranked once by walking
+ * its characters before {@link KeySort} sorts the keys by rank and segment.
+ */
+public final class KeyOrder {
+
+    /**
+     * The groups used when none are configured: Spring Boot core properties, then common
+     * Spring/Boot properties, then application properties.
+     */
+    public static final String DEFAULT_GROUPS = "spring.;server.,management.,logging.,security.;app.,application.";
+
+    private static final KeyOrder DEFAULTS = parse(DEFAULT_GROUPS);
+
+    // Trie nodes in breadth-first order; the children of node i are the nodes
+    // childStart[i] until childStart[i + 1], sorted by the character that leads to them
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] ranks;
+    private final int unmatchedRank;
+
+    private KeyOrder(char[] labels, int[] childStart, int[] ranks, int unmatchedRank) {
+        this.labels = labels;
+        this.childStart = childStart;
+        this.ranks = ranks;
+        this.unmatchedRank = unmatchedRank;
+    }
+
+    /**
+     * Returns the order used by {@link PropertiesToYamlConverter#PropertiesToYamlConverter()}.
+     *
+     * @return the order of {@link #DEFAULT_GROUPS}
+     */
+    public static KeyOrder defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Parses groups written as {@code spring.;server.,management.}: groups are separated by
+     * semicolons and the prefixes of a group by commas. Blank entries are ignored.
+     *
+     * @param groups the groups, highest priority first
+     * @return the order
+     */
+    public static KeyOrder parse(String groups) {
+        List<List<String>> parsed = new ArrayList<>();
+        for (String group : groups.split(";")) {
+            List<String> prefixes = new ArrayList<>();
+            for (String prefix : group.split(",")) {
+                if (!prefix.isBlank()) {
+                    prefixes.add(prefix.trim());
+                }
+            }
+            if (!prefixes.isEmpty()) {
+                parsed.add(prefixes);
+            }
+        }
+        return of(parsed);
+    }
+
+    /**
+     * Compiles prefix groups. A prefix listed in more than one group keeps its first group.
+     *
+     * @param groups the prefixes of each group, highest priority first
+     * @return the order
+     */
+    public static KeyOrder of(List<List<String>> groups) {
+        Builder root = new Builder();
+        for (int rank = 0; rank < groups.size(); rank++) {
+            for (String prefix : groups.get(rank)) {
+                Builder node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+                }
+                if (node.rank < 0) {
+                    node.rank = rank;
+                }
+            }
+        }
+
+        List<Builder> nodes = new ArrayList<>(List.of(root));
+        List<Character> nodeLabels = new ArrayList<>(List.of('\0'));
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            starts.add(nodes.size());
+            for (var child : nodes.get(i).children.entrySet()) {
+                nodeLabels.add(child.getKey());
+                nodes.add(child.getValue());
+            }
+        }
+
+        int size = nodes.size();
+        char[] labels = new char[size];
+        int[] childStart = new int[size + 1];
+        int[] ranks = new int[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = nodeLabels.get(i);
+            childStart[i] = starts.get(i);
+            ranks[i] = nodes.get(i).rank;
+        }
+        childStart[size] = size;
+        return new KeyOrder(labels, childStart, ranks, groups.size());
+    }
+
+    /**
+     * Returns the rank of a key: the group of its longest configured prefix, or the number of
+     * groups if it has none.
+     */
+    int rank(String key) {
+        int rank = ranks[0] >= 0 ? ranks[0] : unmatchedRank;
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            if (ranks[node] >= 0) {
+                rank = ranks[node];
+            }
+        }
+        return rank;
+    }
+
+    private int child(int node, char label) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = labels[mid];
+            if (c < label) {
+                low = mid + 1;
+            } else if (c > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts items by the rank of their keys and then alphabetically. Items with equal keys keep
+     * their relative order.
+     *
+     * @param items the items
+     * @param key   the property key of an item
+     * @return a new sorted list
+     */
+    <T> List<T> sort(List<T> items, Function<T, String> key) {
+        List<T> source = new ArrayList<>(items);
+        String[] keys = new String[source.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.apply(source.get(i));
+        }
+
+        List<T> sorted = new ArrayList<>(keys.length);
+        for (int index : order(keys)) {
+            sorted.add(source.get(index));
+        }
+        return sorted;
+    }
+
+    /**
+     * Orders keys by their rank and then alphabetically. Equal keys keep their relative order.
+     *
+     * @param keys the property keys
+     * @return the indices of the keys in sorted order
+     */
+    int[] order(String[] keys) {
+        int[] keyRanks = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyRanks[i] = rank(keys[i]);
+        }
+        return KeySort.sort(keys, keyRanks);
+    }
+
+    private static final class Builder {
+        private final TreeMap<Character, Builder> children = new TreeMap<>();
+        private int rank = -1;
+    }
+}
@@ -0,0 +1,277 @@
+package com.converter.properties2yaml.service;
+
+import java.util.Arrays;
+
+/**
+ * Reusable tokenizer that splits a property key into the segments of its YAML path.
+ * <p>
+ * A key is cut at dots into map keys, and a bracket group holding a non-negative integer after a
+ * name becomes a list index, so {@code matrix[0][1]} yields the key {@code matrix} followed by the
+ * indices 0 and 1. Any other bracket group stays part of a map key, as in {@code [/**]} or
+ * {@code map[a.b]}; dots inside brackets do not split, and brackets may nest. The whole key is
+ * scanned once and the tokens are kept as kinds, offsets and parsed indices in arrays that are
+ * reused for the next key, so no strings are created until a caller asks for {@link #segment(int)}.
+ */
+final class KeyPath {
+
+    enum Kind {
+        /** A plain map key between dots. */
+        KEY,
+        /** A numeric index into the list named by the preceding token. */
+        INDEX,
+        /** A map key that contains a non-numeric bracket group. */
+        BRACKET_KEY
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private String key;
+    private int size;
+    private byte[] kinds = new byte[8];
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int[] indices = new int[8];
+
+    /**
+     * Tokenizes a key, replacing the tokens of the previous key.
+     * <p>
+     * Trailing dots are ignored and a key without any other character is a single empty map key,
+     * matching how {@code key.split("\\.")} treated them.
+     *
+     * @param key the property key
+     * @return this tokenizer
+     */
+    KeyPath tokenize(String key) {
+        this.key = key;
+        size = 0;
+
+        int end = key.length();
+        while (end > 0 && key.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        int pos = 0;
+        do {
+            pos = tokenizeSegment(pos, end) + 1;
+        } while (pos < end);
+
+        return this;
+    }
+
+    /**
+     * Tokenizes the dot-separated segment starting at {@code start}.
+     *
+     * @return the position of the dot that ends the segment, or {@code end}
+     */
+    private int tokenizeSegment(int start, int end) {
+        int mark = size;
+        int pos = start;
+        while (pos < end) {
+            char ch = key.charAt(pos);
+            if (ch == '.') {
+                break;
+            }
+            if (ch == '[' && findClose(pos, end) >= 0) {
+                break;
+            }
+            pos++;
+        }
+
+        if (pos == end || key.charAt(pos) == '.') {
+            add(Kind.KEY, start, pos, 0);
+            return pos;
+        }
+
+        int nameEnd = pos;
+        while (pos < end && key.charAt(pos) == '[') {
+            int close = findClose(pos, end);
+            if (close < 0) {
+                break;
+            }
+            int index = parseIndex(pos + 1, close);
+            boolean first = size == mark;
+            if (index >= 0) {
+                if (first) {
+                    add(Kind.KEY, start, nameEnd, 0);
+                }
+                add(Kind.INDEX, pos + 1, close, index);
+            } else {
+                add(Kind.BRACKET_KEY, first ? start : pos, close + 1, 0);
+            }
+            pos = close + 1;
+        }
+
+        if (pos < end && key.charAt(pos) != '.') {
+            // Text after a bracket group makes the whole segment one map key
+            size = mark;
+            pos = segmentEnd(pos, end);
+            add(Kind.BRACKET_KEY, start, pos, 0);
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the position of the {@code ]} that closes the bracket at {@code open}, or -1.
+     */
+    private int findClose(int open, int end) {
+        int depth = 0;
+        for (int i = open; i < end; i++) {
+            char ch = key.charAt(i);
+            if (ch == '[') {
+                depth++;
+            } else if (ch == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position of the next dot outside brackets, or {@code end}.
+     */
+    private int segmentEnd(int pos, int end) {
+        while (pos < end) {
+            char ch = key.charAt(pos);
+            if (ch == '.') {
+                return pos;
+            }
+            if (ch == '[') {
+                int close = findClose(pos, end);
+                if (close >= 0) {
+                    pos = close;
+                }
+            }
+            pos++;
+        }
+        return end;
+    }
+
+    /**
+     * Parses a run of ASCII digits that fits in an int.
+     *
+     * @return the index, or -1 if the range is empty, holds anything but digits or overflows
+     */
+    private int parseIndex(int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = key.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void add(Kind kind, int start, int end, int index) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        indices[size] = index;
+        size++;
+    }
+
+    /**
+     * Returns the key that was last tokenized.
+     */
+    String key() {
+        return key;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Kind kind(int token) {
+        return KINDS[kinds[token]];
+    }
+
+    int start(int token) {
+        return starts[token];
+    }
+
+    int end(int token) {
+        return ends[token];
+    }
+
+    /**
+     * Returns the list index of an {@link Kind#INDEX} token.
+     */
+    int index(int token) {
+        return indices[token];
+    }
+
+    /**
+     * Returns the map key of a {@link Kind#KEY} or {@link Kind#BRACKET_KEY} token.
+     */
+    String segment(int token) {
+        return key.substring(starts[token], ends[token]);
+    }
+
+    /**
+     * Returns whether a token addresses the same child as the token at the same position of
+     * another path: the same list index, or a map key with the same text.
+     */
+    boolean sameToken(int token, KeyPath other) {
+        boolean index = kinds[token] == Kind.INDEX.ordinal();
+        if (index != (other.kinds[token] == Kind.INDEX.ordinal())) {
+            return false;
+        }
+        if (index) {
+            return indices[token] == other.indices[token];
+        }
+        int length = ends[token] - starts[token];
+        return length == other.ends[token] - other.starts[token]
+                && key.regionMatches(starts[token], other.key, other.starts[token], length);
+    }
+
+    /**
+     * Returns a hash of a token that agrees with {@link #sameToken(int, KeyPath)}.
+     */
+    long tokenHash(int token) {
+        if (kinds[token] == Kind.INDEX.ordinal()) {
+            return indexHash(indices[token]);
+        }
+        long hash = 0;
+        for (int i = starts[token]; i < ends[token]; i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the {@link #tokenHash(int)} of a map key token with the given text.
+     */
+    static long keyHash(String segment) {
+        long hash = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            hash = 31 * hash + segment.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the {@link #tokenHash(int)} of a list index token.
+     */
+    static long indexHash(int index) {
+        return ~(long) index;
+    }
+
+    /**
+     * Extends the hash of a path by the hash of its next token. The empty path hashes to 0.
+     */
+    static long pathHash(long parent, long token) {
+        long h = (parent ^ token) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
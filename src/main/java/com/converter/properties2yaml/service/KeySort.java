@@ -0,0 +1,392 @@
+package com.converter.properties2yaml.service;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Most-significant-digit radix sort of property keys by rank and then by dot segment.
+ * <p>
+ * Keys are first bucketed by rank. Within a bucket, all keys share the segments already sorted
+ * on, so only the next segment is looked at: the keys are grouped by it, the distinct segments
+ * are ordered, the keys are distributed to their groups and each group is sorted on the segment
+ * after. Shared prefixes such as {@code spring.datasource.hikari.} are therefore scanned once
+ * per key instead of once per comparison. Groups of at least the parallel threshold are sorted
+ * concurrently on a {@link ForkJoinPool}, and small groups fall back to an insertion sort.
+ * <p>
+ * The order is exactly that of {@link String#compareTo} within a rank: a segment sorts as its
+ * characters followed by the {@code .} that ends it, or by nothing for the last segment, so
+ * {@code a.b} still sorts after {@code a-b} and before {@code a/b}. The sort is stable, so equal
+ * keys keep their input order.
+ */
+final class KeySort {
+
+    static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    private final String[] keys;
+    private final int[] order;
+    private final int[] scratch;
+    // The group of the key at each position of order, valid while its range is distributed
+    private final int[] groupOf;
+    private final int parallelThreshold;
+
+    private KeySort(String[] keys, int parallelThreshold) {
+        this.keys = keys;
+        this.order = new int[keys.length];
+        this.scratch = new int[keys.length];
+        this.groupOf = new int[keys.length];
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Sorts keys by rank and then by {@link String#compareTo}.
+     *
+     * @param keys  the keys
+     * @param ranks the non-negative rank of each key
+     * @return the indices of the keys in sorted order
+     */
+    static int[] sort(String[] keys, int[] ranks) {
+        return sort(keys, ranks, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param parallelThreshold the number of keys from which a group is sorted as a separate task
+     * @param pool              the pool the tasks run on
+     */
+    static int[] sort(String[] keys, int[] ranks, int parallelThreshold, ForkJoinPool pool) {
+        boolean parallel = keys.length >= parallelThreshold && pool.getParallelism() >= 2;
+        KeySort sort = new KeySort(keys, parallel ? parallelThreshold : Integer.MAX_VALUE);
+        List<Range> buckets = sort.bucketByRank(ranks);
+        if (!parallel) {
+            for (Range bucket : buckets) {
+                bucket.compute();
+            }
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Serial
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(buckets);
+                }
+            });
+        }
+        return sort.order;
+    }
+
+    private List<Range> bucketByRank(int[] ranks) {
+        int maxRank = 0;
+        for (int rank : ranks) {
+            maxRank = Math.max(maxRank, rank);
+        }
+
+        int[] starts = new int[maxRank + 2];
+        for (int rank : ranks) {
+            starts[rank + 1]++;
+        }
+        for (int rank = 0; rank <= maxRank; rank++) {
+            starts[rank + 1] += starts[rank];
+        }
+
+        int[] next = Arrays.copyOf(starts, maxRank + 1);
+        for (int i = 0; i < ranks.length; i++) {
+            order[next[ranks[i]]++] = i;
+        }
+
+        List<Range> buckets = new ArrayList<>();
+        for (int rank = 0; rank <= maxRank; rank++) {
+            if (starts[rank + 1] - starts[rank] > 1) {
+                buckets.add(new Range(starts[rank], starts[rank + 1], 0));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Sorts the keys at {@code order[from..to)}, which all share their first {@code offset} characters.
+     */
+    private final class Range extends RecursiveAction {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int offset;
+
+        Range(int from, int to, int offset) {
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            sortRange(from, to, offset);
+        }
+
+        private void sortRange(int from, int to, int offset) {
+            while (to - from > INSERTION_SORT_THRESHOLD) {
+                Groups groups = group(from, to, offset);
+                if (groups.count == 1) {
+                    // One shared segment: move on to the next one without distributing
+                    if (groups.last[0]) {
+                        return;
+                    }
+                    offset = groups.ends[0] + 1;
+                    continue;
+                }
+
+                List<Range> tasks = null;
+                int start = from;
+                for (int group : groups.sorted()) {
+                    int end = start + groups.sizes[group];
+                    if (end - start > 1 && !groups.last[group]) {
+                        if (end - start >= parallelThreshold) {
+                            if (tasks == null) {
+                                tasks = new ArrayList<>();
+                            }
+                            tasks.add(new Range(start, end, groups.ends[group] + 1));
+                        } else {
+                            sortRange(start, end, groups.ends[group] + 1);
+                        }
+                    }
+                    start = end;
+                }
+                if (tasks != null) {
+                    invokeAll(tasks);
+                }
+                return;
+            }
+            insertionSort(from, to, offset);
+        }
+    }
+
+    /**
+     * Groups the keys of a range by their segment at {@code offset} and distributes them, in
+     * their current order, into consecutive runs in the order of the segments.
+     */
+    private Groups group(int from, int to, int offset) {
+        Groups groups = new Groups(offset);
+        if (shareSegment(from, to, offset)) {
+            groups.add(order[from]);
+            groups.sizes[0] = to - from;
+            return groups;
+        }
+
+        for (int i = from; i < to; i++) {
+            groupOf[i] = groups.add(order[i]);
+        }
+
+        int[] starts = new int[groups.count];
+        int start = from;
+        for (int group : groups.sorted()) {
+            starts[group] = start;
+            start += groups.sizes[group];
+        }
+        for (int i = from; i < to; i++) {
+            scratch[starts[groupOf[i]]++] = order[i];
+        }
+        System.arraycopy(scratch, from, order, from, to - from);
+        return groups;
+    }
+
+    /**
+     * Returns {@code true} if all keys of a range have the same segment at {@code offset}, which
+     * is checked without hashing because long shared prefixes make it the common case.
+     */
+    private boolean shareSegment(int from, int to, int offset) {
+        String first = keys[order[from]];
+        int end = first.indexOf('.', offset);
+        int length = (end < 0 ? first.length() : end + 1) - offset;
+        for (int i = from + 1; i < to; i++) {
+            String text = keys[order[i]];
+            if (!text.regionMatches(offset, first, offset, length)
+                    || (end < 0 && text.length() != first.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertionSort(int from, int to, int offset) {
+        for (int i = from + 1; i < to; i++) {
+            int key = order[i];
+            int j = i - 1;
+            while (j >= from && compare(order[j], key, offset) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = key;
+        }
+    }
+
+    /**
+     * Compares two keys from {@code offset}, as {@link String#compareTo} would.
+     */
+    private int compare(int a, int b, int offset) {
+        String first = keys[a];
+        String second = keys[b];
+        int limit = Math.min(first.length(), second.length());
+        for (int i = offset; i < limit; i++) {
+            int diff = first.charAt(i) - second.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return first.length() - second.length();
+    }
+
+    /**
+     * The distinct segments of a range, each with a representative key, the end of the segment,
+     * whether it is the last segment of its keys and how many keys have it.
+     */
+    private final class Groups {
+
+        private final int offset;
+        private int[] keyOf = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] last = new boolean[16];
+        private int[] sizes = new int[16];
+        private int[] hashes = new int[16];
+        private int[] table = new int[32];
+        private int count;
+        private int[] sorted;
+
+        Groups(int offset) {
+            this.offset = offset;
+            Arrays.fill(table, -1);
+        }
+
+        /**
+         * Returns the group of the segment of a key at the offset, adding it if it is new.
+         */
+        int add(int key) {
+            String text = keys[key];
+            int end = text.indexOf('.', offset);
+            boolean isLast = end < 0;
+            if (isLast) {
+                end = text.length();
+            }
+
+            int hash = isLast ? 1 : 0;
+            for (int i = offset; i < end; i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+
+            int mask = table.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (table[slot] >= 0) {
+                int group = table[slot];
+                if (hashes[group] == hash && last[group] == isLast && ends[group] == end
+                        && keys[keyOf[group]].regionMatches(offset, text, offset, end - offset)) {
+                    sizes[group]++;
+                    return group;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (count == keyOf.length) {
+                grow();
+            }
+            int group = count++;
+            keyOf[group] = key;
+            ends[group] = end;
+            last[group] = isLast;
+            sizes[group] = 1;
+            hashes[group] = hash;
+            if (count * 2 > table.length) {
+                rehash();
+            } else {
+                table[slot] = group;
+            }
+            return group;
+        }
+
+        private void grow() {
+            int capacity = keyOf.length * 2;
+            keyOf = Arrays.copyOf(keyOf, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            last = Arrays.copyOf(last, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            Arrays.fill(table, -1);
+            int mask = table.length - 1;
+            for (int group = 0; group < count; group++) {
+                int slot = (hashes[group] ^ (hashes[group] >>> 16)) & mask;
+                while (table[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = group;
+            }
+        }
+
+        /**
+         * Returns the groups ordered by segment, computing the order once.
+         */
+        int[] sorted() {
+            if (sorted == null) {
+                sorted = new int[count];
+                for (int i = 0; i < count; i++) {
+                    sorted[i] = i;
+                }
+                mergeSort(sorted, new int[count], 0, count);
+            }
+            return sorted;
+        }
+
+        private void mergeSort(int[] groups, int[] buffer, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            mergeSort(groups, buffer, from, middle);
+            mergeSort(groups, buffer, middle, to);
+            if (compareGroups(groups[middle - 1], groups[middle]) <= 0) {
+                return;
+            }
+
+            System.arraycopy(groups, from, buffer, from, to - from);
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < middle && compareGroups(buffer[left], buffer[right]) <= 0)) {
+                    groups[i] = buffer[left++];
+                } else {
+                    groups[i] = buffer[right++];
+                }
+            }
+        }
+
+        /**
+         * Compares two segments followed by their terminator: a {@code .}, or nothing for a
+         * last segment.
+         */
+        private int compareGroups(int a, int b) {
+            String first = keys[keyOf[a]];
+            String second = keys[keyOf[b]];
+            int firstLength = ends[a] - offset;
+            int secondLength = ends[b] - offset;
+            int limit = Math.min(firstLength, secondLength);
+            for (int i = 0; i < limit; i++) {
+                int diff = first.charAt(offset + i) - second.charAt(offset + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            int firstNext = firstLength > limit ? first.charAt(offset + limit) : last[a] ? -1 : '.';
+            int secondNext = secondLength > limit ? second.charAt(offset + limit) : last[b] ? -1 : '.';
+            return firstNext - secondNext;
+        }
+    }
+}
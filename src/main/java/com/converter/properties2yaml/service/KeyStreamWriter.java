@@ -0,0 +1,206 @@
+package com.converter.properties2yaml.service;
+
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+/**
+ * Writes ordered properties straight to a {@link YamlSink} without building a {@link KeyTree}.
+ * <p>
+ * Sorted keys that share a path prefix are adjacent, and so are the keys of most files kept in
+ * source order, so the document can be produced by keeping the path of the previous key open and
+ * only closing and opening the segments where the next key differs from it. That is only
+ * equivalent to building the tree when every map and list is visited in one contiguous run and
+ * every list is dense and in index order. A first pass over the keys checks this, remembering a
+ * 64-bit hash of every path it has seen; any duplicate key, value that is also used as a map or
+ * list, map used as a list, out-of-order or missing list index, or revisited path (including a
+ * hash collision) makes {@link #write} return {@code false} before anything was written, and the
+ * caller falls back to the tree.
+ */
+final class KeyStreamWriter {
+
+    private KeyStreamWriter() {
+    }
+
+    /**
+     * Writes items as a YAML document in their order if they can be streamed.
+     *
+     * @param size     the number of items
+     * @param key      the property key of the item at a position in output order
+     * @param value    the raw property value of the item at a position in output order
+     * @param interner the interner the segment names are taken from
+     * @param sink     the receiver of the document
+     * @return {@code true} if the document was written, {@code false} if nothing was written and
+     * the items need the tree
+     */
+    static boolean write(int size, IntFunction<String> key, IntFunction<String> value, StringInterner interner,
+                         YamlSink sink) throws IOException {
+        if (!canStream(size, key)) {
+            return false;
+        }
+
+        KeyPath previous = new KeyPath();
+        KeyPath current = new KeyPath();
+        int previousSize = 0;
+
+        sink.begin();
+        sink.startMap();
+        for (int item = 0; item < size; item++) {
+            current.tokenize(key.apply(item));
+            int common = commonPrefix(previous, previousSize, current);
+
+            closeContainers(previous, previousSize, common, sink);
+            int last = current.size() - 1;
+            for (int token = common; token <= last; token++) {
+                if (current.kind(token) == KeyPath.Kind.INDEX) {
+                    sink.element(current.index(token));
+                } else {
+                    sink.key(interner.intern(current.key(), current.start(token), current.end(token)));
+                }
+                if (token < last) {
+                    if (current.kind(token + 1) == KeyPath.Kind.INDEX) {
+                        sink.startList();
+                    } else {
+                        sink.startMap();
+                    }
+                }
+            }
+            String raw = value.apply(item);
+            byte type = KeyTree.scalarType(raw);
+            sink.scalar(type, KeyTree.scalarBits(type, raw), type == KeyTree.STRING ? KeyTree.scalarText(raw) : null);
+
+            KeyPath swap = previous;
+            previous = current;
+            current = swap;
+            previousSize = previous.size();
+        }
+        closeContainers(previous, previousSize, 0, sink);
+        sink.endMap();
+        sink.end();
+        return true;
+    }
+
+    /**
+     * Closes the containers that the tokens of the previous path from {@code common} on opened.
+     */
+    private static void closeContainers(KeyPath previous, int previousSize, int common, YamlSink sink)
+            throws IOException {
+        for (int token = previousSize - 2; token >= common; token--) {
+            if (previous.kind(token + 1) == KeyPath.Kind.INDEX) {
+                sink.endList();
+            } else {
+                sink.endMap();
+            }
+        }
+    }
+
+    private static int commonPrefix(KeyPath previous, int previousSize, KeyPath current) {
+        int limit = Math.min(previousSize, current.size());
+        int common = 0;
+        while (common < limit && previous.sameToken(common, current)) {
+            common++;
+        }
+        return common;
+    }
+
+    private static boolean canStream(int count, IntFunction<String> key) {
+        KeyPath previous = new KeyPath();
+        KeyPath current = new KeyPath();
+        int previousSize = 0;
+        long[] prefixHashes = new long[8];
+        PathSet seen = new PathSet();
+
+        for (int item = 0; item < count; item++) {
+            current.tokenize(key.apply(item));
+            int size = current.size();
+            int common = commonPrefix(previous, previousSize, current);
+
+            // A key that is a prefix of its neighbour holds both a value and nested keys
+            if (previousSize > 0 && (common == size || common == previousSize)) {
+                return false;
+            }
+            if (previousSize > 0) {
+                boolean index = current.kind(common) == KeyPath.Kind.INDEX;
+                if (index != (previous.kind(common) == KeyPath.Kind.INDEX)) {
+                    return false;
+                }
+                if (index && current.index(common) != previous.index(common) + 1) {
+                    return false;
+                }
+            }
+
+            if (prefixHashes.length < size) {
+                prefixHashes = new long[size * 2];
+            }
+            long hash = common == 0 ? 0 : prefixHashes[common - 1];
+            for (int token = common; token < size; token++) {
+                boolean index = current.kind(token) == KeyPath.Kind.INDEX;
+                if (index && token > common && current.index(token) != 0) {
+                    return false;
+                }
+                hash = KeyPath.pathHash(hash, current.tokenHash(token));
+                prefixHashes[token] = hash;
+                if (!seen.add(hash)) {
+                    return false;
+                }
+            }
+
+            KeyPath swap = previous;
+            previous = current;
+            current = swap;
+            previousSize = size;
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing set of path hashes.
+     */
+    private static final class PathSet {
+
+        private long[] table = new long[64];
+        private boolean containsZero;
+        private int size;
+
+        /**
+         * @return {@code false} if the hash was already present
+         */
+        boolean add(long hash) {
+            if (hash == 0) {
+                if (containsZero) {
+                    return false;
+                }
+                containsZero = true;
+                return true;
+            }
+
+            int mask = table.length - 1;
+            int h = (int) (hash ^ (hash >>> 32)) & mask;
+            while (table[h] != 0) {
+                if (table[h] == hash) {
+                    return false;
+                }
+                h = (h + 1) & mask;
+            }
+            table[h] = hash;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private void rehash() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long hash : old) {
+                if (hash != 0) {
+                    int h = (int) (hash ^ (hash >>> 32)) & mask;
+                    while (table[h] != 0) {
+                        h = (h + 1) & mask;
+                    }
+                    table[h] = hash;
+                }
+            }
+        }
+    }
+}
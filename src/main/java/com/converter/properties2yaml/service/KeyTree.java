@@ -0,0 +1,609 @@
+package com.converter.properties2yaml.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact tree of converted properties, built from {@link KeyPath tokenized keys}.
+ * <p>
+ * Every map or list is a {@link Node} that keeps its children in parallel arrays in insertion
+ * order: the segment name, a type tag, a {@code long} holding a boolean, integral or
+ * floating-point value, and a reference for string values and nested nodes. Scalars therefore
+ * cost a few array slots instead of a boxed object and a hash entry. Segment names are interned
+ * per tree straight from the key's characters, so a name repeated across thousands of keys is
+ * stored once and child lookups compare references. Names new to a tree come from a shared
+ * {@link StringInterner}, so trees of different conversions share them too. Nodes with more than a few children add an
+ * open-addressing index over the names or list indices.
+ * <p>
+ * Lists are sparse: a slot is only created for an index that some key defines, so memory stays
+ * proportional to the number of keys however large the indices are. The missing indices are
+ * handled according to {@link ConversionOptions.ListGaps} when the tree is read.
+ * <p>
+ * The tree is the fallback for input that {@link KeyStreamWriter} cannot write directly, and is
+ * written out as {@link YamlSink} events.
+ */
+final class KeyTree {
+
+    static final byte MAP = 0;
+    static final byte LIST = 1;
+    static final byte NULL = 2;
+    static final byte STRING = 3;
+    static final byte BOOLEAN = 4;
+    static final byte INTEGER = 5;
+    static final byte LONG = 6;
+    static final byte DOUBLE = 7;
+
+    private final Node root = new Node(MAP);
+    private final SegmentTable segments;
+    private final ConversionOptions.ListGaps listGaps;
+    private final int maxListGapFill;
+    private boolean resolved;
+
+    KeyTree() {
+        this(ConversionOptions.defaults());
+    }
+
+    KeyTree(ConversionOptions options) {
+        this(options, new StringInterner(StringInterner.DEFAULT_CAPACITY));
+    }
+
+    /**
+     * @param interner the interner new segment names are taken from
+     */
+    KeyTree(ConversionOptions options, StringInterner interner) {
+        this.segments = new SegmentTable(interner);
+        this.listGaps = options.getListGaps();
+        this.maxListGapFill = options.getMaxListGapFill();
+    }
+
+    /**
+     * Returns the root map, checking the list gaps first.
+     *
+     * @throws IllegalArgumentException if a list has gaps the gap policy does not allow
+     */
+    Node root() {
+        if (!resolved) {
+            resolveGaps(root, "");
+            resolved = true;
+        }
+        return root;
+    }
+
+    /**
+     * Stores a property, creating the maps and lists on its path and converting the value to the
+     * narrowest {@link ScalarType}. A value replaces whatever was stored at its position before.
+     *
+     * @param path  the tokenized property key
+     * @param value the raw property value
+     */
+    void put(KeyPath path, String value) {
+        resolved = false;
+        Node current = root;
+        int last = path.size() - 1;
+
+        for (int i = 0; i < last; i++) {
+            byte childType = path.kind(i + 1) == KeyPath.Kind.INDEX ? LIST : MAP;
+            int slot = slotFor(current, path, i);
+            if (current.types[slot] == childType) {
+                current = (Node) current.refs[slot];
+            } else if (childType == LIST && current.kind == MAP && current.types[slot] != NULL) {
+                throw new IllegalArgumentException(
+                        "Property key '" + path.key() + "' uses '" + path.segment(i) + "' as a list, but it holds "
+                                + (current.types[slot] == MAP ? "nested keys" : "a value"));
+            } else {
+                Node child = new Node(childType);
+                current.set(slot, childType, 0, child);
+                current = child;
+            }
+        }
+
+        int slot = slotFor(current, path, last);
+        byte type = scalarType(value);
+        current.set(slot, type, scalarBits(type, value), type == STRING ? scalarText(value) : null);
+    }
+
+    /**
+     * Returns the scalar type a raw property value converts to.
+     */
+    static byte scalarType(String value) {
+        if (value == null || value.isEmpty()) {
+            return STRING;
+        }
+        return switch (ScalarType.classify(value)) {
+            case BOOLEAN -> BOOLEAN;
+            case INTEGER -> INTEGER;
+            case LONG -> LONG;
+            case DOUBLE -> DOUBLE;
+            case STRING -> STRING;
+        };
+    }
+
+    /**
+     * Returns the primitive slot value of a raw property value of the given scalar type.
+     */
+    static long scalarBits(byte type, String value) {
+        return switch (type) {
+            case BOOLEAN -> Boolean.parseBoolean(value) ? 1 : 0;
+            case INTEGER -> Integer.parseInt(value);
+            case LONG -> Long.parseLong(value);
+            case DOUBLE -> Double.doubleToRawLongBits(Double.parseDouble(value));
+            default -> 0;
+        };
+    }
+
+    /**
+     * Returns the text of a raw property value that converts to a string.
+     */
+    static String scalarText(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Returns the slot of the child that a token addresses in a node, adding a slot holding null
+     * if there is none yet.
+     */
+    private int slotFor(Node node, KeyPath path, int token) {
+        if (node.kind == LIST) {
+            int position = path.index(token);
+            int slot = node.findPosition(position);
+            return slot >= 0 ? slot : node.add(null, position);
+        }
+
+        String name = segments.intern(path.key(), path.start(token), path.end(token));
+        int slot = node.find(name);
+        return slot >= 0 ? slot : node.add(name, 0);
+    }
+
+    /**
+     * Orders the elements of every list by index and applies the gap policy.
+     *
+     * @param node the node to check
+     * @param path the key of the node, for error messages
+     */
+    private void resolveGaps(Node node, String path) {
+        if (node.kind == LIST) {
+            node.sortPositions();
+            int gaps = node.length() - node.size;
+            if (gaps > 0) {
+                switch (listGaps) {
+                    case COMPACT -> node.compact = true;
+                    case NULL_FILL -> {
+                        if (gaps > maxListGapFill) {
+                            throw new IllegalArgumentException("List '" + path + "' has " + gaps
+                                    + " undefined indices, more than the limit of " + maxListGapFill);
+                        }
+                    }
+                    case REJECT -> throw new IllegalArgumentException(
+                            "List '" + path + "' has no element at index " + node.firstGap());
+                }
+            }
+        }
+
+        for (int slot = 0; slot < node.size; slot++) {
+            byte type = node.types[slot];
+            if (type == MAP || type == LIST) {
+                String childPath = node.kind == LIST
+                        ? path + "[" + node.positions[slot] + "]"
+                        : path.isEmpty() ? node.names[slot] : path + "." + node.names[slot];
+                resolveGaps(node.node(slot), childPath);
+            }
+        }
+    }
+
+    /**
+     * Writes the tree as a YAML document.
+     *
+     * @param sink the receiver of the document
+     * @throws IllegalArgumentException if a list has gaps the gap policy does not allow
+     */
+    void write(YamlSink sink) throws IOException {
+        Node node = root();
+        sink.begin();
+        write(node, sink);
+        sink.end();
+    }
+
+    private static void write(Node node, YamlSink sink) throws IOException {
+        if (node.kind == LIST) {
+            sink.startList();
+            for (int position = 0; position < node.length(); position++) {
+                int slot = node.slotAt(position);
+                if (slot < 0) {
+                    sink.element(-1);
+                    sink.scalar(NULL, 0, null);
+                } else {
+                    sink.element(node.positions[slot]);
+                    writeChild(node, slot, sink);
+                }
+            }
+            sink.endList();
+        } else {
+            sink.startMap();
+            for (int slot = 0; slot < node.size; slot++) {
+                sink.key(node.names[slot]);
+                writeChild(node, slot, sink);
+            }
+            sink.endMap();
+        }
+    }
+
+    private static void writeChild(Node node, int slot, YamlSink sink) throws IOException {
+        byte type = node.types[slot];
+        if (type == MAP || type == LIST) {
+            write(node.node(slot), sink);
+        } else {
+            sink.scalar(type, node.longValue(slot), type == STRING ? node.text(slot) : null);
+        }
+    }
+
+    /**
+     * Estimates the heap retained by the tree, its interned names and its string values, assuming
+     * 12-byte object headers, 4-byte references and 8-byte alignment.
+     *
+     * @return the estimated size in bytes
+     */
+    long retainedSize() {
+        return retainedSize(root) + segments.retainedSize() + align(12 + 4 * 4);
+    }
+
+    private static long retainedSize(Node node) {
+        long size = align(12 + 1 + 1 + 2 * 4 + 7 * 4)
+                + arraySize(node.types.length, 1)
+                + arraySize(node.refs.length, 4);
+        if (node.names != null) {
+            size += arraySize(node.names.length, 4);
+        }
+        if (node.positions != null) {
+            size += arraySize(node.positions.length, 4);
+        }
+        if (node.order != null) {
+            size += arraySize(node.order.length, 4);
+        }
+        if (node.bits != null) {
+            size += arraySize(node.bits.length, 8);
+        }
+        if (node.index != null) {
+            size += arraySize(node.index.length, 4);
+        }
+        for (int i = 0; i < node.size; i++) {
+            Object ref = node.refs[i];
+            if (ref instanceof Node child) {
+                size += retainedSize(child);
+            } else if (ref instanceof String text && !text.isEmpty()) {
+                size += stringSize(text);
+            }
+        }
+        return size;
+    }
+
+    static long stringSize(String text) {
+        return align(12 + 4 + 4 + 1 + 1) + arraySize(text.length(), 1);
+    }
+
+    static long arraySize(int length, int elementSize) {
+        return align(16 + (long) length * elementSize);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * A map or list in the tree. Children are addressed by slot. A map is read by slot in
+     * insertion order; a list is read by position from 0 to {@link #length()}, and
+     * {@link #slotAt(int)} maps a position to its slot or to -1 for a gap.
+     */
+    static final class Node {
+
+        private static final int INITIAL_CAPACITY = 2;
+        private static final int LINEAR_LOOKUP = 8;
+
+        private final byte kind;
+        private boolean compact;
+        private int size;
+        private int maxPosition = -1;
+        private String[] names;
+        private int[] positions;
+        private int[] order;
+        private byte[] types;
+        private long[] bits;
+        private Object[] refs;
+        private int[] index;
+
+        private Node(byte kind) {
+            this.kind = kind;
+            this.types = new byte[INITIAL_CAPACITY];
+            this.refs = new Object[INITIAL_CAPACITY];
+            if (kind == MAP) {
+                this.names = new String[INITIAL_CAPACITY];
+            } else {
+                this.positions = new int[INITIAL_CAPACITY];
+            }
+        }
+
+        boolean isList() {
+            return kind == LIST;
+        }
+
+        /**
+         * Returns the number of defined children.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns the number of entries a list is written with, including gaps unless it is
+         * compacted. For a map this is its size.
+         */
+        int length() {
+            return kind == MAP || compact ? size : maxPosition + 1;
+        }
+
+        /**
+         * Returns the slot written at a position, or -1 if the position is a gap in a list.
+         */
+        int slotAt(int position) {
+            if (kind == MAP) {
+                return position;
+            }
+            return compact ? order[position] : findPosition(position);
+        }
+
+        /**
+         * Returns the key of a map child.
+         */
+        String name(int slot) {
+            return names[slot];
+        }
+
+        /**
+         * Returns the index a list child was defined with.
+         */
+        int position(int slot) {
+            return positions[slot];
+        }
+
+        byte type(int slot) {
+            return types[slot];
+        }
+
+        Node node(int slot) {
+            return (Node) refs[slot];
+        }
+
+        String text(int slot) {
+            return (String) refs[slot];
+        }
+
+        boolean booleanValue(int slot) {
+            return longValue(slot) != 0;
+        }
+
+        long longValue(int slot) {
+            return bits == null ? 0 : bits[slot];
+        }
+
+        double doubleValue(int slot) {
+            return Double.longBitsToDouble(longValue(slot));
+        }
+
+        /**
+         * Finds a map child by its interned name.
+         *
+         * @return the slot, or -1 if there is no such child
+         */
+        private int find(String name) {
+            if (index == null) {
+                // Keys arrive sorted, so the most recently added child is the likeliest match
+                for (int i = size - 1; i >= 0; i--) {
+                    if (names[i] == name) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            int mask = index.length - 1;
+            for (int h = name.hashCode() & mask; ; h = (h + 1) & mask) {
+                int slot = index[h] - 1;
+                if (slot < 0 || names[slot] == name) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * Finds a list child by its index.
+         *
+         * @return the slot, or -1 if the index is not defined
+         */
+        private int findPosition(int position) {
+            if (position > maxPosition) {
+                return -1;
+            }
+            if (index == null) {
+                for (int i = size - 1; i >= 0; i--) {
+                    if (positions[i] == position) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            int mask = index.length - 1;
+            for (int h = mix(position) & mask; ; h = (h + 1) & mask) {
+                int slot = index[h] - 1;
+                if (slot < 0 || positions[slot] == position) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * Sorts the slots of a list by index so that a compacted list can be read in order.
+         */
+        private void sortPositions() {
+            long[] sorted = new long[size];
+            for (int slot = 0; slot < size; slot++) {
+                sorted[slot] = (long) positions[slot] << 32 | slot;
+            }
+            Arrays.sort(sorted);
+            order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) sorted[i];
+            }
+            compact = false;
+        }
+
+        /**
+         * Returns the lowest missing index of a sorted list.
+         */
+        private int firstGap() {
+            int position = 0;
+            while (position < size && positions[order[position]] == position) {
+                position++;
+            }
+            return position;
+        }
+
+        private void set(int slot, byte type, long value, Object ref) {
+            types[slot] = type;
+            refs[slot] = ref;
+            if (value != 0 || bits != null) {
+                bits()[slot] = value;
+            }
+        }
+
+        /**
+         * Adds a child holding null, under a name for maps or at a position for lists.
+         *
+         * @return the new slot
+         */
+        private int add(String name, int position) {
+            if (size == types.length) {
+                int capacity = size + (size >> 1) + 1;
+                types = Arrays.copyOf(types, capacity);
+                refs = Arrays.copyOf(refs, capacity);
+                if (names != null) {
+                    names = Arrays.copyOf(names, capacity);
+                } else {
+                    positions = Arrays.copyOf(positions, capacity);
+                }
+                if (bits != null) {
+                    bits = Arrays.copyOf(bits, capacity);
+                }
+            }
+            int slot = size++;
+            if (names != null) {
+                names[slot] = name;
+            } else {
+                positions[slot] = position;
+                maxPosition = Math.max(maxPosition, position);
+            }
+            if (index != null) {
+                if (size * 2 > index.length) {
+                    rebuildIndex();
+                } else {
+                    insertIndex(slot);
+                }
+            } else if (size > LINEAR_LOOKUP) {
+                rebuildIndex();
+            }
+            set(slot, NULL, 0, null);
+            return slot;
+        }
+
+        private long[] bits() {
+            if (bits == null) {
+                bits = new long[types.length];
+            }
+            return bits;
+        }
+
+        private void rebuildIndex() {
+            index = new int[Integer.highestOneBit(size * 4 - 1)];
+            for (int slot = 0; slot < size; slot++) {
+                insertIndex(slot);
+            }
+        }
+
+        private void insertIndex(int slot) {
+            int mask = index.length - 1;
+            int h = (names != null ? names[slot].hashCode() : mix(positions[slot])) & mask;
+            while (index[h] != 0) {
+                h = (h + 1) & mask;
+            }
+            index[h] = slot + 1;
+        }
+
+        private static int mix(int position) {
+            return position * 0x9E3779B9;
+        }
+    }
+
+    /**
+     * Open-addressing set of segment names, probed with the characters of a key range so that a
+     * name that is already known is found without creating a substring. Unlike the shared
+     * interner it never drops a name, so every name has one instance per tree.
+     */
+    private static final class SegmentTable {
+
+        private final StringInterner interner;
+        private String[] table = new String[64];
+        private int size;
+
+        SegmentTable(StringInterner interner) {
+            this.interner = interner;
+        }
+
+        String intern(String key, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + key.charAt(i);
+            }
+
+            int length = end - start;
+            int mask = table.length - 1;
+            int h = hash & mask;
+            for (String name = table[h]; name != null; name = table[h]) {
+                if (name.length() == length && key.regionMatches(start, name, 0, length)) {
+                    return name;
+                }
+                h = (h + 1) & mask;
+            }
+
+            String name = interner.intern(key, start, end);
+            table[h] = name;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return name;
+        }
+
+        private void rehash() {
+            String[] old = table;
+            table = new String[old.length * 2];
+            int mask = table.length - 1;
+            for (String name : old) {
+                if (name != null) {
+                    int h = name.hashCode() & mask;
+                    while (table[h] != null) {
+                        h = (h + 1) & mask;
+                    }
+                    table[h] = name;
+                }
+            }
+        }
+
+        long retainedSize() {
+            long retained = align(12 + 4 + 4) + arraySize(table.length, 4);
+            for (String name : table) {
+                if (name != null) {
+                    retained += stringSize(name);
+                }
+            }
+            return retained;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.converter.properties2yaml.service;
+
+import java.io.IOException;
+
+/**
+ * Single-pass scanner for one logical properties line.
+ * <p>
+ * Each character is classified through a lookup table and fed to a small state machine that
+ * finds the key, the separator, the value and an optional inline comment in one pass, following
+ * backslash continuations onto the next physical line as it goes. The results are offsets into
+ * the current line of the {@link PropertiesSource}; strings are only created when a caller asks
+ * for {@link #key()}, {@link #value()} or {@link #comment()}, and the unescaping buffer is only
+ * allocated for slices that actually contain a backslash.
+ */
+final class LineScanner {
+
+    enum LineKind {
+        BLANK,
+        COMMENT,
+        PROPERTY
+    }
+
+    private static final byte OTHER = 0;
+    private static final byte WHITESPACE = 1;
+    private static final byte SEPARATOR = 2;
+    private static final byte BACKSLASH = 3;
+    private static final byte COMMENT_MARK = 4;
+    private static final byte QUOTE = 5;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    static {
+        CHAR_CLASS[' '] = WHITESPACE;
+        CHAR_CLASS['\t'] = WHITESPACE;
+        CHAR_CLASS['\f'] = WHITESPACE;
+        CHAR_CLASS['='] = SEPARATOR;
+        CHAR_CLASS[':'] = SEPARATOR;
+        CHAR_CLASS['\\'] = BACKSLASH;
+        CHAR_CLASS['#'] = COMMENT_MARK;
+        CHAR_CLASS['!'] = COMMENT_MARK;
+        CHAR_CLASS['"'] = QUOTE;
+    }
+
+    private static final int KEY = 0;
+    private static final int KEY_ESCAPE = 1;
+    private static final int SEPARATOR_WHITESPACE = 2;
+    private static final int VALUE_WHITESPACE = 3;
+    private static final int VALUE = 4;
+    private static final int VALUE_ESCAPE = 5;
+    private static final int QUOTED = 6;
+    private static final int QUOTED_ESCAPE = 7;
+    private static final int INLINE_COMMENT = 8;
+
+    private final PropertiesSource source;
+    private final boolean inlineComments;
+
+    private int keyStart;
+    private int keyEnd;
+    private int valueStart;
+    private int valueEnd;
+    private int commentStart;
+    private int commentEnd;
+    private boolean keyEscaped;
+    private boolean valueEscaped;
+    private int continuations;
+
+    /**
+     * @param source         the source whose current line is scanned
+     * @param inlineComments whether {@code #} or {@code !} outside double quotes ends the value
+     */
+    LineScanner(PropertiesSource source, boolean inlineComments) {
+        this.source = source;
+        this.inlineComments = inlineComments;
+    }
+
+    static boolean isWhitespace(char ch) {
+        return ch < 128 && CHAR_CLASS[ch] == WHITESPACE;
+    }
+
+    private int classOf(char ch) {
+        if (ch >= 128) {
+            return OTHER;
+        }
+        int charClass = CHAR_CLASS[ch];
+        if (!inlineComments && (charClass == COMMENT_MARK || charClass == QUOTE)) {
+            return OTHER;
+        }
+        return charClass;
+    }
+
+    /**
+     * Scans the current line of the source, pulling in continuation lines when needed.
+     *
+     * @return what kind of line was found
+     */
+    LineKind scan() throws IOException {
+        continuations = 0;
+        int end = source.length();
+        int i = 0;
+        while (i < end && isWhitespace(source.charAt(i))) {
+            i++;
+        }
+        // A line holding nothing but a continuation leaves the next one at the start of the logical line
+        while (i == end - 1 && source.charAt(i) == '\\') {
+            if (!source.continueLine(i)) {
+                return LineKind.BLANK;
+            }
+            continuations++;
+            end = source.length();
+            while (i < end && isWhitespace(source.charAt(i))) {
+                i++;
+            }
+        }
+        if (i == end) {
+            return LineKind.BLANK;
+        }
+
+        commentStart = -1;
+        commentEnd = -1;
+
+        char first = source.charAt(i);
+        if (first == '#' || first == '!') {
+            commentStart = i + 1;
+            commentEnd = end;
+            trimComment();
+            return LineKind.COMMENT;
+        }
+
+        keyStart = i;
+        keyEscaped = false;
+        valueEscaped = false;
+        int state = KEY;
+        int contentEnd = -1;
+        int backslashRun = 0;
+
+        while (true) {
+            while (i < end) {
+                char ch = source.charAt(i);
+                int charClass = classOf(ch);
+
+                switch (state) {
+                    case KEY -> {
+                        if (charClass == BACKSLASH) {
+                            keyEscaped = true;
+                            state = KEY_ESCAPE;
+                        } else if (charClass == SEPARATOR) {
+                            keyEnd = i;
+                            state = VALUE_WHITESPACE;
+                        } else if (charClass == WHITESPACE) {
+                            keyEnd = i;
+                            state = SEPARATOR_WHITESPACE;
+                        }
+                    }
+                    case KEY_ESCAPE -> state = KEY;
+                    case SEPARATOR_WHITESPACE, VALUE_WHITESPACE -> {
+                        if (charClass == WHITESPACE) {
+                            break;
+                        }
+                        if (charClass == SEPARATOR && state == SEPARATOR_WHITESPACE) {
+                            state = VALUE_WHITESPACE;
+                            break;
+                        }
+                        if (charClass == BACKSLASH && i == end - 1) {
+                            // A continuation joins the next line to the whitespace before the value
+                            break;
+                        }
+                        valueStart = i;
+                        contentEnd = i;
+                        state = VALUE;
+                        // Reprocess this character as the first character of the value
+                        continue;
+                    }
+                    case VALUE -> {
+                        if (charClass == BACKSLASH) {
+                            valueEscaped = true;
+                            state = VALUE_ESCAPE;
+                        } else if (charClass == QUOTE) {
+                            contentEnd = i + 1;
+                            state = QUOTED;
+                        } else if (charClass == COMMENT_MARK) {
+                            valueEnd = contentEnd;
+                            commentStart = i + 1;
+                            backslashRun = 0;
+                            state = INLINE_COMMENT;
+                        } else if (charClass != WHITESPACE) {
+                            contentEnd = i + 1;
+                        }
+                    }
+                    case VALUE_ESCAPE -> {
+                        contentEnd = i + 1;
+                        state = VALUE;
+                    }
+                    case QUOTED -> {
+                        contentEnd = i + 1;
+                        if (charClass == BACKSLASH) {
+                            valueEscaped = true;
+                            state = QUOTED_ESCAPE;
+                        } else if (charClass == QUOTE) {
+                            state = VALUE;
+                        }
+                    }
+                    case QUOTED_ESCAPE -> {
+                        contentEnd = i + 1;
+                        state = QUOTED;
+                    }
+                    default -> backslashRun = charClass == BACKSLASH ? backslashRun + 1 : 0;
+                }
+                i++;
+            }
+
+            // A backslash still waiting for the character it escapes joins the next physical line
+            boolean pendingEscape = state == KEY_ESCAPE || state == VALUE_ESCAPE || state == QUOTED_ESCAPE
+                    || (state == INLINE_COMMENT && (backslashRun & 1) == 1)
+                    || ((state == SEPARATOR_WHITESPACE || state == VALUE_WHITESPACE)
+                        && end > 0 && source.charAt(end - 1) == '\\');
+            if (!pendingEscape) {
+                break;
+            }
+
+            int keep = end - 1;
+            boolean continued = source.continueLine(keep);
+            end = source.length();
+            i = keep;
+            backslashRun = 0;
+            state = switch (state) {
+                case KEY_ESCAPE -> KEY;
+                case VALUE_ESCAPE -> VALUE;
+                case QUOTED_ESCAPE -> QUOTED;
+                default -> state;
+            };
+            if (!continued) {
+                break;
+            }
+            continuations++;
+        }
+
+        switch (state) {
+            case KEY, KEY_ESCAPE -> {
+                keyEnd = end;
+                valueStart = end;
+                valueEnd = end;
+            }
+            case SEPARATOR_WHITESPACE, VALUE_WHITESPACE -> {
+                valueStart = end;
+                valueEnd = end;
+            }
+            case INLINE_COMMENT -> {
+                commentEnd = end;
+                trimComment();
+            }
+            default -> valueEnd = end;
+        }
+
+        return LineKind.PROPERTY;
+    }
+
+    private void trimComment() {
+        while (commentStart < commentEnd && source.charAt(commentStart) <= ' ') {
+            commentStart++;
+        }
+        while (commentEnd > commentStart && source.charAt(commentEnd - 1) <= ' ') {
+            commentEnd--;
+        }
+    }
+
+    /**
+     * Returns the number of physical lines the last scanned line continued onto.
+     */
+    int continuations() {
+        return continuations;
+    }
+
+    String key() {
+        return keyEscaped ? unescape(keyStart, keyEnd) : source.text(keyStart, keyEnd);
+    }
+
+    /**
+     * Returns the value of the property line last scanned, shared with other conversions if it is
+     * one of the {@link CommonValues}.
+     */
+    String value() {
+        if (valueEscaped) {
+            return unescape(valueStart, valueEnd);
+        }
+        String common = CommonValues.find(source, valueStart, valueEnd);
+        return common != null ? common : source.text(valueStart, valueEnd);
+    }
+
+    /**
+     * Returns the text of a comment line, or of the inline comment of a property line.
+     *
+     * @return the trimmed comment, or {@code null} if the property has no inline comment
+     */
+    String comment() {
+        return commentStart < 0 ? null : source.text(commentStart, commentEnd);
+    }
+
+    /**
+     * Returns whether the property line last scanned has a non-empty inline comment.
+     */
+    boolean hasInlineComment() {
+        return commentStart >= 0 && commentEnd > commentStart;
+    }
+
+    /**
+     * Appends the text of {@link #comment()} to a builder without creating a string for it.
+     */
+    void appendComment(StringBuilder builder) {
+        source.appendText(builder, commentStart, commentEnd);
+    }
+
+    private String unescape(int start, int end) {
+        int backslash = start;
+        while (backslash < end && source.charAt(backslash) != '\\') {
+            backslash++;
+        }
+        if (backslash == end) {
+            return source.text(start, end);
+        }
+
+        StringBuilder result = new StringBuilder(end - start);
+        int runStart = start;
+        int i = backslash;
+
+        while (i < end) {
+            if (source.charAt(i) != '\\') {
+                i++;
+                continue;
+            }
+
+            source.appendText(result, runStart, i);
+            if (i + 1 == end) {
+                runStart = end;
+                break;
+            }
+
+            char escaped = source.charAt(i + 1);
+            switch (escaped) {
+                case 'n' -> result.append('\n');
+                case 't' -> result.append('\t');
+                case 'r' -> result.append('\r');
+                case 'f' -> result.append('\f');
+                case 'u' -> {
+                    result.append(decodeUnicode(i + 2, end));
+                    i += 4;
+                }
+                default -> {
+                    // Any other escaped character stands for itself
+                    runStart = i + 1;
+                    i += 2;
+                    continue;
+                }
+            }
+            i += 2;
+            runStart = i;
+        }
+
+        source.appendText(result, runStart, end);
+        return result.toString();
+    }
+
+    private char decodeUnicode(int start, int end) {
+        if (start + 4 > end) {
+            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+        }
+        int value = 0;
+        for (int i = start; i < start + 4; i++) {
+            int digit = Character.digit(source.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+}
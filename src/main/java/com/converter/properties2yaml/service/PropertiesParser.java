@@ -1,233 +1,402 @@
 package com.converter.properties2yaml.service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses properties content into a {@link ParseResult}, optionally keeping comments.
+ * <p>
+ * Keys, separators, escapes and line continuations follow {@link java.util.Properties#load(Reader)}.
+ * When comments are kept, a {@code #} or {@code !} outside double quotes in a value starts an
+ * inline comment.
+ * <p>
+ * Inputs that can be read from any position (strings and mapped files) and are larger than the
+ * parallel threshold are split at safe line boundaries and the chunks are parsed concurrently on
+ * a {@link ForkJoinPool}. The chunk results are concatenated in input order, so later definitions
+ * of a key still win, and line numbers are shifted to their position in the whole input.
+ */
 class PropertiesParser {
 
-    public ParseResult parse(String propertiesContent) {
-        List<PropertyEntry> entries = new ArrayList<>();
-        List<String> headerComments = new ArrayList<>();
-        List<String> accumulatedComments = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new StringReader(propertiesContent))) {
-            String line;
-            int lineNumber = 0;
-            boolean foundFirstProperty = false;
-            StringBuilder multilineValue = null;
-            String multilineKey = null;
-            List<String> multilineComments = null;
-            int multilineStartLine = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                String trimmed = line.trim();
-
-                if (multilineValue != null) {
-                    if (line.endsWith("\\")) {
-                        multilineValue.append("\n").append(line, 0, line.length() - 1);
-                    } else {
-                        multilineValue.append("\n").append(line);
-                        entries.add(new PropertyEntry(multilineKey, multilineValue.toString(),
-                                                     multilineComments, multilineStartLine));
-                        multilineValue = null;
-                        multilineKey = null;
-                        multilineComments = null;
-                    }
-                    continue;
-                }
+    static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
 
-                if (trimmed.isEmpty()) {
-                    if (!foundFirstProperty && !accumulatedComments.isEmpty()) {
-                        headerComments.addAll(accumulatedComments);
-                        accumulatedComments.clear();
-                    }
-                    continue;
-                }
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
 
-                if (isComment(trimmed)) {
-                    String comment = extractComment(trimmed);
-                    accumulatedComments.add(comment);
-                    continue;
-                }
+    PropertiesParser() {
+        this(DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
 
-                PropertyLine propertyLine = parseLine(line);
-                if (propertyLine != null) {
-                    foundFirstProperty = true;
+    /**
+     * @param parallelThreshold the input size in chars or bytes from which parsing is split into chunks
+     * @param pool              the pool the chunks are parsed on
+     */
+    PropertiesParser(int parallelThreshold, ForkJoinPool pool) {
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
 
-                    if (propertyLine.value.endsWith("\\")) {
-                        multilineKey = propertyLine.key;
-                        multilineValue = new StringBuilder(propertyLine.value.substring(0, propertyLine.value.length() - 1));
-                        multilineComments = new ArrayList<>(accumulatedComments);
-                        multilineStartLine = lineNumber;
-                    } else {
-                        entries.add(new PropertyEntry(propertyLine.key, propertyLine.value,
-                                                     accumulatedComments, lineNumber));
-                    }
-                    accumulatedComments.clear();
-                }
-            }
+    public ParseResult parse(String propertiesContent) {
+        return parse(propertiesContent, true);
+    }
+
+    /**
+     * Parses properties held in a string, scanning it in place.
+     *
+     * @param propertiesContent the properties content
+     * @param preserveComments  whether to collect comments
+     * @return the parsed entries and header comments
+     */
+    public ParseResult parse(String propertiesContent, boolean preserveComments) {
+        try {
+            return parse(PropertiesSource.of(propertiesContent), preserveComments);
         } catch (IOException e) {
             throw new RuntimeException("Failed to parse properties content", e);
         }
-
-        return new ParseResult(entries, headerComments);
     }
 
-    private boolean isComment(String line) {
-        return line.startsWith("#") || line.startsWith("!");
+    public ParseResult parse(Reader source) {
+        return parse(source, true);
     }
 
-    private String extractComment(String line) {
-        if (line.startsWith("#") || line.startsWith("!")) {
-            return line.substring(1).trim();
+    /**
+     * Parses properties read incrementally from a character stream. The reader is not closed.
+     *
+     * @param source           the properties source
+     * @param preserveComments whether to collect comments
+     * @return the parsed entries and header comments
+     */
+    public ParseResult parse(Reader source, boolean preserveComments) {
+        try {
+            return parse(PropertiesSource.of(source), preserveComments);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse properties content", e);
         }
-        return line;
     }
 
-    private PropertyLine parseLine(String line) {
-        int commentIndex = findCommentStart(line);
-        String effectiveLine = commentIndex >= 0 ? line.substring(0, commentIndex).trim() : line.trim();
-        String inlineComment = commentIndex >= 0 ? line.substring(commentIndex + 1).trim() : null;
+    /**
+     * Parses a properties file by mapping it into memory and scanning its bytes. The file may be
+     * encoded in ISO-8859-1 or UTF-8.
+     *
+     * @param file             the properties file
+     * @param preserveComments whether to collect comments
+     * @return the parsed entries and header comments
+     */
+    public ParseResult parse(Path file, boolean preserveComments) {
+        try (PropertiesSource source = PropertiesSource.map(file)) {
+            return parse(source, preserveComments);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read properties file: " + file, e);
+        }
+    }
 
-        if (effectiveLine.isEmpty()) {
-            return null;
+    private ParseResult parse(PropertiesSource source, boolean preserveComments) throws IOException {
+        if (source.size() < parallelThreshold || pool.getParallelism() < 2) {
+            return parseChunk(source, preserveComments).result;
         }
 
-        int separatorIndex = findSeparator(effectiveLine);
-        if (separatorIndex < 0) {
-            return null;
+        List<PropertiesSource> chunks = source.split(Math.max(parallelThreshold / 2,
+                                                              source.size() / (pool.getParallelism() * 4)));
+        if (chunks.size() == 1) {
+            return parseChunk(source, preserveComments).result;
         }
 
-        String key = effectiveLine.substring(0, separatorIndex).trim();
-        String value = effectiveLine.substring(separatorIndex + 1).trim();
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(chunks.size());
+        for (PropertiesSource chunk : chunks) {
+            tasks.add(pool.submit(() -> parseChunk(chunk, preserveComments)));
+        }
 
-        value = unescapeValue(value);
+        ResultBuilder builder = new ResultBuilder();
+        int lineOffset = 0;
+        for (ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk = task.join();
+            builder.append(chunk.result, lineOffset);
+            lineOffset += chunk.lines;
+        }
+        return builder.build();
+    }
 
-        if (inlineComment != null && !inlineComment.isEmpty()) {
-            value = value + " #INLINE_COMMENT#" + inlineComment;
+    /**
+     * Parses a source sequentially, returning the result with the number of physical lines read.
+     */
+    private Chunk parseChunk(PropertiesSource source, boolean preserveComments) throws IOException {
+        ResultBuilder builder = new ResultBuilder();
+        LineScanner scanner = new LineScanner(source, preserveComments);
+        int lineNumber = 0;
+        boolean foundFirstProperty = false;
+
+        while (source.nextLine()) {
+            lineNumber++;
+
+            switch (scanner.scan()) {
+                case BLANK -> {
+                    if (!foundFirstProperty) {
+                        builder.endHeader();
+                    }
+                }
+                case COMMENT -> {
+                    if (preserveComments) {
+                        builder.addComment(scanner);
+                    }
+                }
+                case PROPERTY -> {
+                    boolean inlineComment = scanner.hasInlineComment();
+                    if (inlineComment) {
+                        builder.addComment(scanner);
+                    }
+                    builder.addEntry(scanner.key(), scanner.value(), inlineComment, lineNumber);
+                    foundFirstProperty = true;
+                }
+            }
+            lineNumber += scanner.continuations();
         }
 
-        return new PropertyLine(key, value);
+        return new Chunk(builder.build(), lineNumber);
     }
 
-    private int findCommentStart(String line) {
-        boolean inEscape = false;
-        boolean inQuote = false;
+    private static final class Chunk {
+        private final ParseResult result;
+        private final int lines;
 
-        for (int i = 0; i < line.length(); i++) {
-            char ch = line.charAt(i);
+        Chunk(ParseResult result, int lines) {
+            this.result = result;
+            this.lines = lines;
+        }
+    }
 
-            if (inEscape) {
-                inEscape = false;
-                continue;
-            }
+    /**
+     * Parsed entries held in parallel arrays: the key, value and line number of each entry, and
+     * the end of its comments in one shared comment arena. The arena is a single string with the
+     * bounds of each comment, so comments cost no object of their own and are written to the
+     * output as slices of it. The comments of an entry are the comment lines above it followed
+     * by its inline comment, if it has one; they start where the comments of the previous entry
+     * end, and those of the first entry where the header comments at the start of the arena end.
+     * Only the keys array is trimmed to the number of entries.
+     */
+    static final class ParseResult {
+
+        private final String[] keys;
+        private final String[] values;
+        private final int[] lineNumbers;
+        private final int[] commentEnds;
+        private final boolean[] inlineComments;
+        private final String commentText;
+        // Comment i is commentText from commentBounds[i] until commentBounds[i + 1]
+        private final int[] commentBounds;
+        private final int commentCount;
+        private final int headerEnd;
+
+        private ParseResult(String[] keys, String[] values, int[] lineNumbers, int[] commentEnds,
+                            boolean[] inlineComments, String commentText, int[] commentBounds, int commentCount,
+                            int headerEnd) {
+            this.keys = keys;
+            this.values = values;
+            this.lineNumbers = lineNumbers;
+            this.commentEnds = commentEnds;
+            this.inlineComments = inlineComments;
+            this.commentText = commentText;
+            this.commentBounds = commentBounds;
+            this.commentCount = commentCount;
+            this.headerEnd = headerEnd;
+        }
 
-            if (ch == '\\') {
-                inEscape = true;
-                continue;
-            }
+        int size() {
+            return keys.length;
+        }
 
-            if (ch == '"') {
-                inQuote = !inQuote;
-                continue;
-            }
+        /**
+         * Returns the keys of all entries in parse order. The array is not copied and must not
+         * be modified.
+         */
+        String[] keys() {
+            return keys;
+        }
 
-            if (!inQuote && (ch == '#' || ch == '!')) {
-                return i;
-            }
+        String key(int entry) {
+            return keys[entry];
         }
 
-        return -1;
-    }
+        String value(int entry) {
+            return values[entry];
+        }
 
-    private int findSeparator(String line) {
-        boolean inEscape = false;
+        int lineNumber(int entry) {
+            return lineNumbers[entry];
+        }
 
-        for (int i = 0; i < line.length(); i++) {
-            char ch = line.charAt(i);
+        /**
+         * Returns the comment lines above an entry.
+         */
+        List<String> precedingComments(int entry) {
+            return comments(commentStart(entry), inlineComments[entry] ? commentEnds[entry] - 1 : commentEnds[entry]);
+        }
 
-            if (inEscape) {
-                inEscape = false;
-                continue;
-            }
+        /**
+         * Returns the comment that followed the value of an entry on the same line.
+         *
+         * @return the inline comment, or {@code null} if there was none
+         */
+        String inlineComment(int entry) {
+            return inlineComments[entry] ? comment(commentEnds[entry] - 1) : null;
+        }
 
-            if (ch == '\\') {
-                inEscape = true;
-                continue;
-            }
+        /**
+         * Returns the comment lines above an entry followed by its inline comment.
+         */
+        List<String> comments(int entry) {
+            return comments(commentStart(entry), commentEnds[entry]);
+        }
 
-            if (ch == '=' || ch == ':') {
-                return i;
-            }
+        boolean hasComments(int entry) {
+            return commentEnds[entry] > commentStart(entry);
+        }
 
-            if (ch == ' ' || ch == '\t') {
-                return i;
-            }
+        /**
+         * Returns the index in the comment arena of the first comment of an entry.
+         */
+        int commentStart(int entry) {
+            return entry == 0 ? headerEnd : commentEnds[entry - 1];
         }
 
-        return -1;
-    }
+        /**
+         * Returns the index in the comment arena after the last comment of an entry.
+         */
+        int commentEnd(int entry) {
+            return commentEnds[entry];
+        }
 
-    private String unescapeValue(String value) {
-        if (value == null || value.isEmpty()) {
-            return value;
+        /**
+         * Returns the number of header comments, which are the first ones in the comment arena.
+         */
+        int headerCommentCount() {
+            return headerEnd;
         }
 
-        StringBuilder result = new StringBuilder();
-        boolean inEscape = false;
+        List<String> headerComments() {
+            return comments(0, headerEnd);
+        }
 
-        for (int i = 0; i < value.length(); i++) {
-            char ch = value.charAt(i);
+        String comment(int index) {
+            return commentText.substring(commentBounds[index], commentBounds[index + 1]);
+        }
 
-            if (inEscape) {
-                switch (ch) {
-                    case 'n' -> result.append('\n');
-                    case 't' -> result.append('\t');
-                    case 'r' -> result.append('\r');
-                    case 'f' -> result.append('\f');
-                    case '\\' -> result.append('\\');
-                    default -> result.append(ch);
-                }
-                inEscape = false;
-            } else if (ch == '\\') {
-                inEscape = true;
-            } else {
-                result.append(ch);
-            }
+        /**
+         * Writes a comment from the arena without creating a string for it.
+         */
+        void writeComment(int index, Writer out) throws IOException {
+            out.write(commentText, commentBounds[index], commentBounds[index + 1] - commentBounds[index]);
         }
 
-        return result.toString();
+        private List<String> comments(int start, int end) {
+            List<String> result = new ArrayList<>(end - start);
+            for (int index = start; index < end; index++) {
+                result.add(comment(index));
+            }
+            return result;
+        }
     }
 
-    static class ParseResult {
-        private final List<PropertyEntry> entries;
-        private final List<String> headerComments;
+    /**
+     * Collects entries and comments into growing arrays. Comment lines go to the arena as they
+     * are read and are claimed by the next entry, or by the header at a blank line before it.
+     */
+    private static final class ResultBuilder {
+
+        private String[] keys = new String[64];
+        private String[] values = new String[64];
+        private int[] lineNumbers = new int[64];
+        private int[] commentEnds = new int[64];
+        private boolean[] inlineComments = new boolean[64];
+        private int size;
+
+        private final StringBuilder commentText = new StringBuilder();
+        private int[] commentBounds = new int[16];
+        private int commentCount;
+        private int headerEnd;
+
+        /**
+         * Adds the comment of the line last scanned to the arena.
+         */
+        void addComment(LineScanner scanner) {
+            scanner.appendComment(commentText);
+            endComment(commentText.length());
+        }
 
-        public ParseResult(List<PropertyEntry> entries, List<String> headerComments) {
-            this.entries = entries;
-            this.headerComments = headerComments;
+        private void endComment(int end) {
+            if (commentCount + 1 == commentBounds.length) {
+                commentBounds = Arrays.copyOf(commentBounds, commentBounds.length * 2);
+            }
+            commentBounds[++commentCount] = end;
         }
 
-        public List<PropertyEntry> getEntries() {
-            return entries;
+        /**
+         * Moves the comments read since the last entry into the header.
+         */
+        void endHeader() {
+            headerEnd = commentCount;
         }
 
-        public List<String> getHeaderComments() {
-            return headerComments;
+        /**
+         * Adds an entry that claims the comments read since the last one.
+         *
+         * @param inlineComment whether the last of those comments is the inline comment of the entry
+         */
+        void addEntry(String key, String value, boolean inlineComment, int lineNumber) {
+            add(key, value, lineNumber, commentCount, inlineComment);
         }
-    }
 
-    private static class PropertyLine {
-        final String key;
-        final String value;
+        /**
+         * Appends the entries and comments of a chunk with their line numbers shifted. The header
+         * comments of the first chunk become the header; later chunks start on a property line
+         * that follows one, so neither they nor the chunk before them have comments outside
+         * their entries.
+         */
+        void append(ParseResult chunk, int lineOffset) {
+            if (size == 0 && commentCount == 0) {
+                headerEnd = chunk.headerEnd;
+            }
+            int commentOffset = commentCount;
+            int textOffset = commentText.length();
+            commentText.append(chunk.commentText);
+            for (int index = 1; index <= chunk.commentCount; index++) {
+                endComment(chunk.commentBounds[index] + textOffset);
+            }
+            for (int entry = 0; entry < chunk.size(); entry++) {
+                add(chunk.keys[entry], chunk.values[entry], chunk.lineNumbers[entry] + lineOffset,
+                    chunk.commentEnds[entry] + commentOffset, chunk.inlineComments[entry]);
+            }
+        }
+
+        private void add(String key, String value, int lineNumber, int commentEnd, boolean inlineComment) {
+            if (size == keys.length) {
+                grow();
+            }
+            keys[size] = key;
+            values[size] = value;
+            lineNumbers[size] = lineNumber;
+            commentEnds[size] = commentEnd;
+            inlineComments[size] = inlineComment;
+            size++;
+        }
+
+        private void grow() {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+            commentEnds = Arrays.copyOf(commentEnds, capacity);
+            inlineComments = Arrays.copyOf(inlineComments, capacity);
+        }
 
-        PropertyLine(String key, String value) {
-            this.key = key;
-            this.value = value;
+        ParseResult build() {
+            return new ParseResult(Arrays.copyOf(keys, size), values, lineNumbers, commentEnds, inlineComments,
+                                   commentText.toString(), commentBounds, commentCount, headerEnd);
         }
     }
 }
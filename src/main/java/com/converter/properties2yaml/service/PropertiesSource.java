@@ -0,0 +1,641 @@
+package com.converter.properties2yaml.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line-oriented view over properties input used by {@link PropertiesParser}.
+ * <p>
+ * The parser only ever looks at ASCII structure (separators, comment markers, backslashes and
+ * whitespace) through {@link #charAt(int)} and asks the source to decode the key, value and
+ * comment slices it keeps. This lets the same parsing code run over a character stream, over a
+ * string in place and over the raw bytes of a memory-mapped file.
+ * <p>
+ * A source that opened its input closes it in {@link #close()}; sources over a caller's reader
+ * or over memory hold nothing to close.
+ */
+abstract class PropertiesSource implements Closeable {
+
+    /**
+     * Reads lines from a character stream.
+     */
+    static PropertiesSource of(Reader reader) {
+        BufferedReader bufferedReader = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        return new ReaderSource(bufferedReader);
+    }
+
+    /**
+     * Scans a string in place.
+     */
+    static PropertiesSource of(String content) {
+        return new StringSource(content, 0, content.length());
+    }
+
+    /**
+     * Maps a file into memory and scans its bytes directly. Files too large for a single mapping
+     * are read line by line from a byte stream instead, which must be closed.
+     */
+    static PropertiesSource map(Path file) throws IOException {
+        return map(file, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Maps a file of up to {@code maxMapped} bytes into memory, and streams larger ones.
+     */
+    static PropertiesSource map(Path file, long maxMapped) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxMapped) {
+                return new StreamSource(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+            }
+            return new MappedSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), 0, (int) size);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Returns the size of the input in chars or bytes, or -1 if it is not known up front.
+     */
+    int size() {
+        return -1;
+    }
+
+    /**
+     * Splits an unread source into consecutive chunks that can be parsed independently.
+     * <p>
+     * A chunk only ever starts on a property line whose preceding line is also a property line
+     * that does not end in a continuation backslash, so no boundary falls inside a continued
+     * value or between comments and the property they belong to. Sources without random access
+     * are never split.
+     *
+     * @param chunkSize the approximate chunk size
+     * @return the chunks in input order
+     */
+    List<PropertiesSource> split(int chunkSize) {
+        return List.of(this);
+    }
+
+    /**
+     * Advances to the next physical line.
+     *
+     * @return {@code false} at the end of the input
+     */
+    abstract boolean nextLine() throws IOException;
+
+    /**
+     * Replaces everything from {@code keep} onwards in the current line with the next physical
+     * line, minus its leading whitespace.
+     *
+     * @return {@code false} if the input ended, in which case the line is just truncated
+     */
+    abstract boolean continueLine(int keep) throws IOException;
+
+    /**
+     * Returns the length of the current (possibly continued) line.
+     */
+    abstract int length();
+
+    /**
+     * Returns the character at the given position of the current line. Sources backed by bytes
+     * return the byte as an ISO-8859-1 character, which is exact for the ASCII structure the
+     * parser looks for.
+     */
+    abstract char charAt(int index);
+
+    /**
+     * Decodes a slice of the current line.
+     */
+    abstract String text(int start, int end);
+
+    /**
+     * Decodes a slice of the current line into a builder.
+     */
+    void appendText(StringBuilder builder, int start, int end) {
+        builder.append(text(start, end));
+    }
+
+    private static final class ReaderSource extends PropertiesSource {
+
+        private final BufferedReader reader;
+        private String line;
+        private StringBuilder joined;
+
+        ReaderSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        boolean nextLine() throws IOException {
+            line = reader.readLine();
+            joined = null;
+            return line != null;
+        }
+
+        @Override
+        boolean continueLine(int keep) throws IOException {
+            if (joined == null) {
+                joined = new StringBuilder(line.length() * 2);
+                joined.append(line, 0, keep);
+            } else {
+                joined.setLength(keep);
+            }
+
+            String next = reader.readLine();
+            if (next == null) {
+                return false;
+            }
+            int start = 0;
+            while (start < next.length() && LineScanner.isWhitespace(next.charAt(start))) {
+                start++;
+            }
+            joined.append(next, start, next.length());
+            return true;
+        }
+
+        @Override
+        int length() {
+            return joined != null ? joined.length() : line.length();
+        }
+
+        @Override
+        char charAt(int index) {
+            return joined != null ? joined.charAt(index) : line.charAt(index);
+        }
+
+        @Override
+        String text(int start, int end) {
+            return joined != null ? joined.substring(start, end) : line.substring(start, end);
+        }
+
+        @Override
+        void appendText(StringBuilder builder, int start, int end) {
+            builder.append(joined != null ? joined : line, start, end);
+        }
+    }
+
+    /**
+     * A source over an in-memory buffer that can be read from any position. Lines are located in
+     * place between {@code from} and {@code limit}.
+     */
+    private abstract static class RandomAccessSource extends PropertiesSource {
+
+        final int from;
+        final int limit;
+        int position;
+        int lineStart;
+        int lineLength;
+
+        RandomAccessSource(int from, int limit) {
+            this.from = from;
+            this.limit = limit;
+            this.position = from;
+        }
+
+        /**
+         * Returns the raw buffer content at an absolute position.
+         */
+        abstract char rawAt(int index);
+
+        /**
+         * Creates a source over another range of the same buffer.
+         */
+        abstract RandomAccessSource slice(int from, int limit);
+
+        @Override
+        int size() {
+            return limit - from;
+        }
+
+        /**
+         * Advances past the current line and its terminator, returning the end of the line content.
+         */
+        int readToLineEnd() {
+            int end = lineEnd(position);
+            position = nextLineStart(end);
+            return end;
+        }
+
+        @Override
+        List<PropertiesSource> split(int chunkSize) {
+            List<PropertiesSource> chunks = new ArrayList<>();
+            int chunkStart = position;
+            while (limit - chunkStart > chunkSize + chunkSize / 2) {
+                int boundary = findBoundary(chunkStart + chunkSize);
+                if (boundary >= limit) {
+                    break;
+                }
+                chunks.add(slice(chunkStart, boundary));
+                chunkStart = boundary;
+            }
+            chunks.add(chunks.isEmpty() ? this : slice(chunkStart, limit));
+            return chunks;
+        }
+
+        /**
+         * Finds the first safe chunk start after the line containing {@code index}.
+         */
+        private int findBoundary(int index) {
+            int previousStart = nextLineStart(lineEnd(index));
+            int previousEnd = lineEnd(previousStart);
+            while (previousEnd < limit) {
+                int currentStart = nextLineStart(previousEnd);
+                int currentEnd = lineEnd(currentStart);
+                if (isPropertyLine(previousStart, previousEnd)
+                        && !endsWithContinuation(previousStart, previousEnd)
+                        && isPropertyLine(currentStart, currentEnd)) {
+                    return currentStart;
+                }
+                previousStart = currentStart;
+                previousEnd = currentEnd;
+            }
+            return limit;
+        }
+
+        private int lineEnd(int index) {
+            while (index < limit) {
+                char ch = rawAt(index);
+                if (ch == '\n' || ch == '\r') {
+                    break;
+                }
+                index++;
+            }
+            return index;
+        }
+
+        private int nextLineStart(int lineEnd) {
+            int index = lineEnd;
+            if (index < limit && rawAt(index) == '\r') {
+                index++;
+            }
+            if (index < limit && rawAt(index) == '\n') {
+                index++;
+            }
+            return index;
+        }
+
+        private boolean isPropertyLine(int start, int end) {
+            while (start < end && LineScanner.isWhitespace(rawAt(start))) {
+                start++;
+            }
+            return start < end && rawAt(start) != '#' && rawAt(start) != '!';
+        }
+
+        private boolean endsWithContinuation(int start, int end) {
+            int backslashes = 0;
+            for (int i = end - 1; i >= start && rawAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            return (backslashes & 1) == 1;
+        }
+    }
+
+    /**
+     * Scans a string in place. Only continued lines are copied.
+     */
+    private static final class StringSource extends RandomAccessSource {
+
+        private final String content;
+        private StringBuilder joined;
+
+        StringSource(String content, int from, int limit) {
+            super(from, limit);
+            this.content = content;
+        }
+
+        @Override
+        char rawAt(int index) {
+            return content.charAt(index);
+        }
+
+        @Override
+        RandomAccessSource slice(int from, int limit) {
+            return new StringSource(content, from, limit);
+        }
+
+        @Override
+        boolean nextLine() {
+            joined = null;
+            if (position >= limit) {
+                return false;
+            }
+            lineStart = position;
+            lineLength = readToLineEnd() - lineStart;
+            return true;
+        }
+
+        @Override
+        boolean continueLine(int keep) {
+            if (joined == null) {
+                joined = new StringBuilder(keep * 2);
+                joined.append(content, lineStart, lineStart + keep);
+            } else {
+                joined.setLength(keep);
+            }
+
+            if (position >= limit) {
+                return false;
+            }
+            int start = position;
+            int end = readToLineEnd();
+            while (start < end && LineScanner.isWhitespace(content.charAt(start))) {
+                start++;
+            }
+            joined.append(content, start, end);
+            return true;
+        }
+
+        @Override
+        int length() {
+            return joined != null ? joined.length() : lineLength;
+        }
+
+        @Override
+        char charAt(int index) {
+            return joined != null ? joined.charAt(index) : content.charAt(lineStart + index);
+        }
+
+        @Override
+        String text(int start, int end) {
+            return joined != null
+                    ? joined.substring(start, end)
+                    : content.substring(lineStart + start, lineStart + end);
+        }
+
+        @Override
+        void appendText(StringBuilder builder, int start, int end) {
+            if (joined != null) {
+                builder.append(joined, start, end);
+            } else {
+                builder.append(content, lineStart + start, lineStart + end);
+            }
+        }
+    }
+
+    /**
+     * Scans a mapped file byte by byte. Lines are located in place; only continued lines are
+     * copied into a scratch buffer. Decoded slices are read as UTF-8 when they are valid UTF-8
+     * and as ISO-8859-1 otherwise, so both traditional and UTF-8 properties files are accepted.
+     */
+    private static final class MappedSource extends RandomAccessSource {
+
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+        private byte[] slice = new byte[256];
+        private boolean continued;
+
+        MappedSource(ByteBuffer buffer, int from, int limit) {
+            super(from, limit);
+            this.buffer = buffer;
+            if (from == 0 && limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                    && buffer.get(2) == (byte) 0xBF) {
+                position = 3;
+            }
+        }
+
+        @Override
+        char rawAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        RandomAccessSource slice(int from, int limit) {
+            return new MappedSource(buffer, from, limit);
+        }
+
+        @Override
+        boolean nextLine() {
+            continued = false;
+            if (position >= limit) {
+                return false;
+            }
+            lineStart = position;
+            lineLength = readToLineEnd() - lineStart;
+            return true;
+        }
+
+        @Override
+        boolean continueLine(int keep) {
+            if (!continued) {
+                ensureScratch(keep);
+                buffer.get(lineStart, scratch, 0, keep);
+                continued = true;
+            }
+            lineLength = keep;
+
+            if (position >= limit) {
+                return false;
+            }
+            int start = position;
+            int end = readToLineEnd();
+            while (start < end && LineScanner.isWhitespace(rawAt(start))) {
+                start++;
+            }
+            int appended = end - start;
+            ensureScratch(keep + appended);
+            buffer.get(start, scratch, keep, appended);
+            lineLength = keep + appended;
+            return true;
+        }
+
+        private void ensureScratch(int capacity) {
+            if (scratch.length < capacity) {
+                byte[] grown = new byte[Math.max(capacity, scratch.length * 2)];
+                System.arraycopy(scratch, 0, grown, 0, scratch.length);
+                scratch = grown;
+            }
+        }
+
+        @Override
+        int length() {
+            return lineLength;
+        }
+
+        @Override
+        char charAt(int index) {
+            return (char) ((continued ? scratch[index] : buffer.get(lineStart + index)) & 0xFF);
+        }
+
+        @Override
+        String text(int start, int end) {
+            int length = end - start;
+            byte[] bytes;
+            int offset;
+            if (continued) {
+                bytes = scratch;
+                offset = start;
+            } else {
+                if (slice.length < length) {
+                    slice = new byte[Math.max(length, slice.length * 2)];
+                }
+                bytes = slice;
+                buffer.get(lineStart + start, bytes, 0, length);
+                offset = 0;
+            }
+            return decode(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Reads a file too large to map line by line from a byte stream. Each physical line is copied
+     * into a buffer that grows to the longest one, and slices are decoded like those of
+     * {@link MappedSource}.
+     */
+    private static final class StreamSource extends PropertiesSource {
+
+        private final BufferedInputStream in;
+        private byte[] line = new byte[256];
+        private int lineLength;
+        // The byte read after a '\r' that was not followed by '\n', or -1
+        private int pending = -1;
+        private boolean started;
+
+        StreamSource(BufferedInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        boolean nextLine() throws IOException {
+            lineLength = 0;
+            return readLine();
+        }
+
+        @Override
+        boolean continueLine(int keep) throws IOException {
+            lineLength = keep;
+            if (!readLine()) {
+                return false;
+            }
+            int start = keep;
+            while (start < lineLength && LineScanner.isWhitespace((char) (line[start] & 0xFF))) {
+                start++;
+            }
+            System.arraycopy(line, start, line, keep, lineLength - start);
+            lineLength -= start - keep;
+            return true;
+        }
+
+        /**
+         * Appends the next physical line to the buffer.
+         *
+         * @return {@code false} at the end of the input
+         */
+        private boolean readLine() throws IOException {
+            if (!started) {
+                started = true;
+                in.mark(3);
+                if (!(in.read() == 0xEF && in.read() == 0xBB && in.read() == 0xBF)) {
+                    in.reset();
+                }
+            }
+
+            int b = pending >= 0 ? pending : in.read();
+            pending = -1;
+            if (b < 0) {
+                return false;
+            }
+            while (b >= 0 && b != '\n' && b != '\r') {
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[lineLength++] = (byte) b;
+                b = in.read();
+            }
+            if (b == '\r') {
+                int next = in.read();
+                if (next != '\n') {
+                    pending = next;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int length() {
+            return lineLength;
+        }
+
+        @Override
+        char charAt(int index) {
+            return (char) (line[index] & 0xFF);
+        }
+
+        @Override
+        String text(int start, int end) {
+            return decode(line, start, end - start);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Decodes a slice of raw bytes as UTF-8 when it is valid UTF-8 and as ISO-8859-1 otherwise,
+     * so both traditional and UTF-8 properties files are accepted.
+     */
+    private static String decode(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length,
+                isUtf8(bytes, offset, length) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns {@code true} for well-formed UTF-8 that contains at least one multi-byte sequence.
+     * Pure ASCII is reported as {@code false} so it takes the cheaper ISO-8859-1 decoder.
+     */
+    private static boolean isUtf8(byte[] bytes, int offset, int length) {
+        boolean multiByte = false;
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            int continuation;
+            if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+            if (i + continuation >= end) {
+                return false;
+            }
+            int second = bytes[i + 1] & 0xFF;
+            if ((b == 0xE0 && second < 0xA0) || (b == 0xED && second > 0x9F)
+                    || (b == 0xF0 && second < 0x90) || (b == 0xF4 && second > 0x8F)) {
+                return false;
+            }
+            for (int j = 1; j <= continuation; j++) {
+                if ((bytes[i + j] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            multiByte = true;
+            i += continuation + 1;
+        }
+        return multiByte;
+    }
+}
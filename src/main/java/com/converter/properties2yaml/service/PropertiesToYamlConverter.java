@@ -1,465 +1,391 @@
 package com.converter.properties2yaml.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.IntFunction;
 
 @Service
 public class PropertiesToYamlConverter {
 
     private final PropertiesParser parser = new PropertiesParser();
+    private final KeyOrder keyOrder;
+    private final StringInterner interner;
+    private final ConversionCache cache;
 
     /**
-     * Converts a properties string to YAML format.
-     *
-     * @param propertiesContent the properties content as a string
-     * @return the converted YAML string
+     * Creates a converter that orders keys by {@link KeyOrder#defaults()}.
      */
-    public String convert(String propertiesContent) {
-        return convert(propertiesContent, false);
+    public PropertiesToYamlConverter() {
+        this(KeyOrder.defaults());
     }
 
     /**
-     * Converts a properties string to YAML format with optional comment preservation.
+     * Creates a converter that orders keys by prefix groups in the format of
+     * {@link KeyOrder#parse(String)}.
      *
-     * @param propertiesContent the properties content as a string
-     * @param preserveComments  whether to preserve comments from the properties file
-     * @return the converted YAML string
+     * @param keyOrder the prefix groups
      */
-    public String convert(String propertiesContent, boolean preserveComments) {
-        if (!preserveComments) {
-            Properties properties = new Properties();
-            try (StringReader reader = new StringReader(propertiesContent)) {
-                properties.load(reader);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to parse properties content", e);
-            }
-            return convertPropertiesToYaml(properties);
-        } else {
-            PropertiesParser.ParseResult parseResult = parser.parse(propertiesContent);
-            return convertWithComments(parseResult);
-        }
+    public PropertiesToYamlConverter(String keyOrder) {
+        this(KeyOrder.parse(keyOrder));
     }
 
     /**
-     * Converts a properties file to YAML format.
+     * Creates a converter that orders keys by the prefix groups configured in
+     * {@code converter.key-order}, in the format of {@link KeyOrder#parse(String)}, interns up to
+     * {@code converter.interner-capacity} key segments and caches up to
+     * {@code converter.cache.max-bytes} of results, outside the heap if
+     * {@code converter.cache.off-heap} is set.
      *
-     * @param propertiesFile the path to the properties file
-     * @return the converted YAML string
+     * @param keyOrder         the configured prefix groups
+     * @param internerCapacity the configured capacity of the segment interner
+     * @param cacheMaxBytes    the configured size of the result cache, or 0 for none
+     * @param cacheOffHeap     whether cached results are stored outside the heap
      */
-    public String convertFile(Path propertiesFile) {
-        Properties properties = new Properties();
-        try (InputStream inputStream = Files.newInputStream(propertiesFile)) {
-            properties.load(inputStream);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read properties file: " + propertiesFile, e);
-        }
-        return convertPropertiesToYaml(properties);
+    @Autowired
+    public PropertiesToYamlConverter(@Value("${converter.key-order:" + KeyOrder.DEFAULT_GROUPS + "}") String keyOrder,
+                                     @Value("${converter.interner-capacity:" + StringInterner.DEFAULT_CAPACITY + "}")
+                                     int internerCapacity,
+                                     @Value("${converter.cache.max-bytes:0}") long cacheMaxBytes,
+                                     @Value("${converter.cache.off-heap:false}") boolean cacheOffHeap) {
+        this(KeyOrder.parse(keyOrder), new StringInterner(internerCapacity),
+                cacheMaxBytes > 0 ? new ConversionCache(cacheMaxBytes, cacheOffHeap) : null);
     }
 
     /**
-     * Converts a properties file and saves the result to a YAML file.
+     * Creates a converter with a custom key order.
      *
-     * @param propertiesFile the path to the properties file
-     * @param yamlFile       the path to the output YAML file
+     * @param keyOrder the order of the key groups
      */
-    public void convertFileToFile(Path propertiesFile, Path yamlFile) {
-        String yamlContent = convertFile(propertiesFile);
-        try {
-            Files.writeString(yamlFile, yamlContent);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to write YAML file: " + yamlFile, e);
-        }
+    public PropertiesToYamlConverter(KeyOrder keyOrder) {
+        this(keyOrder, new StringInterner(StringInterner.DEFAULT_CAPACITY));
     }
 
     /**
-     * Converts Properties object to YAML string.
+     * Creates a converter with a custom key order and segment interner.
      *
-     * @param properties the Properties object
-     * @return the YAML string
+     * @param keyOrder the order of the key groups
+     * @param interner the interner shared by all conversions for key segments
      */
-    private String convertPropertiesToYaml(Properties properties) {
-        // Sort properties by category and then alphabetically
-        List<String> sortedKeys = new ArrayList<>(properties.stringPropertyNames());
-        sortedKeys.sort(new PropertyKeyComparator());
-
-        // Use LinkedHashMap to preserve insertion order
-        Map<String, Object> yamlMap = new LinkedHashMap<>();
-
-        for (String key : sortedKeys) {
-            String value = properties.getProperty(key);
-            addToYamlMap(yamlMap, key, convertValue(value));
-        }
-
-        return toYamlString(yamlMap);
+    public PropertiesToYamlConverter(KeyOrder keyOrder, StringInterner interner) {
+        this(keyOrder, interner, null);
     }
 
     /**
-     * Comparator for sorting property keys by category and then alphabetically.
-     * Order: Spring Boot properties first, then common properties, then custom properties.
+     * Creates a converter with a custom key order, segment interner and result cache.
+     *
+     * @param keyOrder the order of the key groups
+     * @param interner the interner shared by all conversions for key segments
+     * @param cache    the cache of converted documents, or {@code null} to convert every time
      */
-    private static class PropertyKeyComparator implements Comparator<String> {
-        @Override
-        public int compare(String key1, String key2) {
-            int priority1 = getPropertyPriority(key1);
-            int priority2 = getPropertyPriority(key2);
-
-            if (priority1 != priority2) {
-                return Integer.compare(priority1, priority2);
-            }
+    public PropertiesToYamlConverter(KeyOrder keyOrder, StringInterner interner, ConversionCache cache) {
+        this.keyOrder = keyOrder;
+        this.interner = interner;
+        this.cache = cache;
+    }
 
-            // Same priority, sort alphabetically
-            return key1.compareTo(key2);
-        }
+    /**
+     * Returns the interner the key segments of every conversion are shared through, whose hit
+     * rate shows whether its capacity fits the keys being converted.
+     *
+     * @return the segment interner
+     */
+    public StringInterner interner() {
+        return interner;
+    }
 
-        /**
-         * Determines the priority of a property key.
-         * Lower numbers = higher priority (displayed first).
-         */
-        private int getPropertyPriority(String key) {
-            // Spring Boot core properties - highest priority
-            if (key.startsWith("spring.")) {
-                return 1;
-            }
+    /**
+     * Returns the cache that string and byte array conversions are served from and that stream
+     * conversions fill, whose counters show how often identical content is converted again.
+     *
+     * @return the result cache, or {@code null} if results are not cached
+     */
+    public ConversionCache cache() {
+        return cache;
+    }
 
-            // Common Spring/Boot properties
-            if (key.startsWith("server.") || key.startsWith("management.") ||
-                key.startsWith("logging.") || key.startsWith("security.")) {
-                return 2;
-            }
+    /**
+     * Returns the YAML of a document that the cache already holds, found by the SHA-256 digest of
+     * its UTF-8 properties, so that a client can be answered without sending them.
+     *
+     * @param digest  the SHA-256 digest of the UTF-8 properties
+     * @param options the conversion options
+     * @return the UTF-8 YAML, or {@code null} if there is no cache or it does not hold the document
+     */
+    public byte[] cached(byte[] digest, ConversionOptions options) {
+        ConversionCache.Key key = cache != null ? cache.digestKey(digest, options) : null;
+        byte[] yaml = key != null ? cache.get(key) : null;
+        return yaml != null ? yaml.clone() : null;
+    }
 
-            // Application properties
-            if (key.startsWith("app.") || key.startsWith("application.")) {
-                return 3;
-            }
+    /**
+     * Converts a properties string to YAML format.
+     *
+     * @param propertiesContent the properties content as a string
+     * @return the converted YAML string
+     */
+    public String convert(String propertiesContent) {
+        return convert(propertiesContent, false);
+    }
 
-            // Custom properties - lowest priority
-            return 4;
-        }
+    /**
+     * Converts a properties string to YAML format with optional comment preservation.
+     *
+     * @param propertiesContent the properties content as a string
+     * @param preserveComments  whether to preserve comments from the properties file
+     * @return the converted YAML string
+     */
+    public String convert(String propertiesContent, boolean preserveComments) {
+        return convert(propertiesContent, ConversionOptions.defaults().withPreserveComments(preserveComments));
     }
 
     /**
-     * Adds a property to the YAML map structure, handling nested keys.
+     * Converts a properties string to YAML format.
      *
-     * @param map   the map to add to
-     * @param key   the property key (may contain dots for nesting)
-     * @param value the property value
+     * @param propertiesContent the properties content as a string
+     * @param options           the conversion options
+     * @return the converted YAML string
      */
-    @SuppressWarnings("unchecked")
-    private void addToYamlMap(Map<String, Object> map, String key, Object value) {
-        String[] parts = key.split("\\.");
-        Map<String, Object> currentMap = map;
-
-        for (int i = 0; i < parts.length - 1; i++) {
-            String part = parts[i];
-
-            // Handle array notation like items[0]
-            if (part.contains("[")) {
-                String arrayKey = part.substring(0, part.indexOf('['));
-                String indexStr = part.substring(part.indexOf('[') + 1, part.indexOf(']'));
-
-                // Check if the content between brackets is a valid integer
-                if (isNumeric(indexStr)) {
-                    int index = Integer.parseInt(indexStr);
-
-                    List<Object> list = (List<Object>) currentMap.computeIfAbsent(arrayKey, k -> new ArrayList<>());
-
-                    // Ensure list has enough elements
-                    while (list.size() <= index) {
-                        list.add(new LinkedHashMap<String, Object>());
-                    }
-
-                    Object element = list.get(index);
-                    if (element instanceof Map) {
-                        currentMap = (Map<String, Object>) element;
-                    } else {
-                        Map<String, Object> newMap = new LinkedHashMap<>();
-                        list.set(index, newMap);
-                        currentMap = newMap;
-                    }
-                } else {
-                    // Treat it as a map key (e.g., [/**])
-                    String mapKey = arrayKey.isEmpty() ? "[" + indexStr + "]" : arrayKey + "[" + indexStr + "]";
-                    Object existing = currentMap.get(mapKey);
-                    if (existing instanceof Map) {
-                        currentMap = (Map<String, Object>) existing;
-                    } else {
-                        Map<String, Object> newMap = new LinkedHashMap<>();
-                        currentMap.put(mapKey, newMap);
-                        currentMap = newMap;
-                    }
-                }
-            } else {
-                Object existing = currentMap.get(part);
-                if (existing instanceof Map) {
-                    currentMap = (Map<String, Object>) existing;
-                } else {
-                    Map<String, Object> newMap = new LinkedHashMap<>();
-                    currentMap.put(part, newMap);
-                    currentMap = newMap;
-                }
+    public String convert(String propertiesContent, ConversionOptions options) {
+        ConversionCache.Key key = cache != null ? cache.key(propertiesContent, options) : null;
+        if (key != null) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                return new String(cached, StandardCharsets.UTF_8);
             }
         }
 
-        String lastPart = parts[parts.length - 1];
-
-        // Handle array notation in the last part
-        if (lastPart.contains("[")) {
-            String arrayKey = lastPart.substring(0, lastPart.indexOf('['));
-            String indexStr = lastPart.substring(lastPart.indexOf('[') + 1, lastPart.indexOf(']'));
-
-            // Check if the content between brackets is a valid integer
-            if (isNumeric(indexStr)) {
-                int index = Integer.parseInt(indexStr);
-
-                List<Object> list = (List<Object>) currentMap.computeIfAbsent(arrayKey, k -> new ArrayList<>());
-
-                while (list.size() <= index) {
-                    list.add(null);
-                }
-                list.set(index, value);
-            } else {
-                // Treat it as a map key (e.g., [/**])
-                String mapKey = arrayKey.isEmpty() ? "[" + indexStr + "]" : arrayKey + "[" + indexStr + "]";
-                currentMap.put(mapKey, value);
-            }
-        } else {
-            currentMap.put(lastPart, value);
+        // YAML is about as long as the properties it comes from
+        StringWriter writer = new StringWriter(propertiesContent.length());
+        write(parser.parse(propertiesContent, options.isPreserveComments()), writer, options);
+        String yaml = writer.toString();
+        if (key != null) {
+            cache.put(key, yaml.getBytes(StandardCharsets.UTF_8));
         }
+        return yaml;
     }
 
     /**
-     * Check if a string is numeric
+     * Converts properties read from a character stream and writes the YAML to a character sink.
+     * <p>
+     * The input is consumed incrementally and the YAML is written to the sink as it is produced,
+     * so neither the full input nor the full output is held in memory. Neither stream is closed.
+     *
+     * @param reader  the properties source
+     * @param writer  the YAML sink
+     * @param options the conversion options
      */
-    private boolean isNumeric(String str) {
-        if (str == null || str.isEmpty()) {
-            return false;
-        }
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+    public void convert(Reader reader, Writer writer, ConversionOptions options) {
+        write(parser.parse(reader, options.isPreserveComments()), writer, options);
     }
 
     /**
-     * Converts string value to appropriate type (number, boolean, or string).
+     * Converts UTF-8 properties read from a byte stream and writes UTF-8 YAML to a byte sink.
+     * Neither stream is closed.
+     * <p>
+     * The input is converted as it is read, so the cache cannot be looked up. With a
+     * {@link #cache()}, the input is hashed and the YAML copied as they stream, and the YAML is
+     * stored once the whole input is read if both fit in an entry, so that later conversions of
+     * the same content through other entry points are served from it.
      *
-     * @param value the string value
-     * @return the converted value
+     * @param inputStream  the properties source
+     * @param outputStream the YAML sink
+     * @param options      the conversion options
      */
-    private Object convertValue(String value) {
-        if (value == null || value.isEmpty()) {
-            return "";
+    public void convert(InputStream inputStream, OutputStream outputStream, ConversionOptions options) {
+        ConversionCache.Recorder recorder = cache != null ? cache.recorder(options) : null;
+        if (recorder != null) {
+            inputStream = recorder.input(inputStream);
+            outputStream = recorder.output(outputStream);
         }
-
-        // Check for boolean
-        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-            return Boolean.parseBoolean(value);
+        Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        convert(reader, writer, options);
+        flush(writer);
+        if (recorder != null) {
+            recorder.store();
         }
+    }
 
-        // Check for integer
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException ignored) {
+    /**
+     * Converts UTF-8 properties held in memory and writes UTF-8 YAML to a byte sink, which is not
+     * closed.
+     * <p>
+     * With a {@link #cache()}, YAML already converted from the same content and options is written
+     * from it without parsing.
+     *
+     * @param properties   the properties as UTF-8
+     * @param outputStream the YAML sink
+     * @param options      the conversion options
+     */
+    public void convert(byte[] properties, OutputStream outputStream, ConversionOptions options) {
+        ConversionCache.Key key = cache != null ? cache.key(properties, options) : null;
+        if (key == null) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            convert(new InputStreamReader(new ByteArrayInputStream(properties), StandardCharsets.UTF_8), writer, options);
+            flush(writer);
+            return;
         }
 
-        // Check for long
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException ignored) {
+        byte[] yaml = cache.get(key);
+        if (yaml == null) {
+            ByteArrayOutputStream converted = new ByteArrayOutputStream(properties.length);
+            Writer writer = new OutputStreamWriter(converted, StandardCharsets.UTF_8);
+            convert(new InputStreamReader(new ByteArrayInputStream(properties), StandardCharsets.UTF_8), writer, options);
+            flush(writer);
+            yaml = converted.toByteArray();
+            cache.put(key, yaml);
         }
-
-        // Check for double
         try {
-            return Double.parseDouble(value);
-        } catch (NumberFormatException ignored) {
+            outputStream.write(yaml);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write YAML output", e);
         }
-
-        return value;
     }
 
     /**
-     * Converts the map to a YAML string.
+     * Converts a properties file to YAML format.
+     * <p>
+     * The file is memory-mapped and scanned as bytes; it may be encoded in ISO-8859-1 or UTF-8.
      *
-     * @param map the map to convert
-     * @return the YAML string
+     * @param propertiesFile the path to the properties file
+     * @return the converted YAML string
      */
-    private String toYamlString(Map<String, Object> map) {
-        DumperOptions options = new DumperOptions();
-        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        options.setPrettyFlow(true);
-        options.setIndent(2);
-        options.setIndicatorIndent(2);
-        options.setIndentWithIndicator(true);
-
-        Yaml yaml = new Yaml(options);
-        return yaml.dump(map);
+    public String convertFile(Path propertiesFile) {
+        return convertFile(propertiesFile, ConversionOptions.defaults());
     }
 
-    private String convertWithComments(PropertiesParser.ParseResult parseResult) {
-        List<PropertyEntry> entries = parseResult.getEntries();
-        List<PropertyEntry> sortedEntries = new ArrayList<>(entries);
-        sortedEntries.sort(Comparator.comparing(PropertyEntry::getKey, new PropertyKeyComparator()));
-
-        Map<String, Object> yamlMap = new LinkedHashMap<>();
-        Map<String, List<String>> commentMap = new LinkedHashMap<>();
-
-        for (PropertyEntry entry : sortedEntries) {
-            String value = entry.getValue();
-
-            List<String> comments = new ArrayList<>(entry.getPrecedingComments());
-
-            if (value.contains(" #INLINE_COMMENT#")) {
-                int index = value.indexOf(" #INLINE_COMMENT#");
-                String inlineComment = value.substring(index + " #INLINE_COMMENT#".length());
-                value = value.substring(0, index);
-                comments.add(inlineComment);
-            }
-
-            if (!comments.isEmpty()) {
-                commentMap.put(entry.getKey(), comments);
-            }
+    /**
+     * Converts a properties file to YAML format.
+     * <p>
+     * The file is memory-mapped and scanned as bytes; it may be encoded in ISO-8859-1 or UTF-8.
+     *
+     * @param propertiesFile the path to the properties file
+     * @param options        the conversion options
+     * @return the converted YAML string
+     */
+    public String convertFile(Path propertiesFile, ConversionOptions options) {
+        StringWriter writer = new StringWriter();
+        write(parser.parse(propertiesFile, options.isPreserveComments()), writer, options);
+        return writer.toString();
+    }
 
-            addToYamlMap(yamlMap, entry.getKey(), convertValue(value));
+    /**
+     * Converts a properties file and saves the result to a YAML file.
+     *
+     * @param propertiesFile the path to the properties file
+     * @param yamlFile       the path to the output YAML file
+     */
+    public void convertFileToFile(Path propertiesFile, Path yamlFile) {
+        PropertiesParser.ParseResult parseResult = parser.parse(propertiesFile, false);
+        try (Writer writer = Files.newBufferedWriter(yamlFile)) {
+            writeEntriesAsYaml(parseResult, writer, ConversionOptions.defaults());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write YAML file: " + yamlFile, e);
         }
-
-        return renderYamlWithComments(yamlMap, commentMap, parseResult.getHeaderComments());
     }
 
-    private String renderYamlWithComments(Map<String, Object> yamlMap,
-                                          Map<String, List<String>> commentMap,
-                                          List<String> headerComments) {
-        StringBuilder result = new StringBuilder();
-
-        if (!headerComments.isEmpty()) {
-            for (String comment : headerComments) {
-                result.append("# ").append(comment).append("\n");
-            }
-            result.append("\n");
+    private void flush(Writer writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write YAML output", e);
         }
-
-        renderMapWithComments(result, yamlMap, commentMap, 0, "");
-
-        return result.toString();
     }
 
-    @SuppressWarnings("unchecked")
-    private void renderMapWithComments(StringBuilder sb, Map<String, Object> map,
-                                       Map<String, List<String>> commentMap,
-                                       int indentLevel, String keyPrefix) {
-        String indent = "  ".repeat(indentLevel);
-        boolean isFirstEntry = true;
-
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            String fullKey = keyPrefix.isEmpty() ? key : keyPrefix + "." + key;
-
-            if (indentLevel == 0 && !isFirstEntry) {
-                sb.append("\n");
-            }
-            isFirstEntry = false;
-
-            List<String> comments = commentMap.get(fullKey);
-            if (comments != null && !comments.isEmpty()) {
-                for (String comment : comments) {
-                    sb.append(indent).append("# ").append(comment).append("\n");
-                }
-            }
-
-            if (value instanceof Map) {
-                sb.append(indent).append(key).append(":\n");
-                renderMapWithComments(sb, (Map<String, Object>) value, commentMap, indentLevel + 1, fullKey);
-            } else if (value instanceof List) {
-                sb.append(indent).append(key).append(":\n");
-                renderListWithComments(sb, (List<Object>) value, commentMap, indentLevel + 1, fullKey);
-            } else {
-                sb.append(indent).append(key).append(": ");
-                renderValue(sb, value);
-                sb.append("\n");
-            }
+    /**
+     * Writes parsed properties as YAML, with their comments if the options ask for them.
+     *
+     * @param parseResult the parsed entries and header comments
+     * @param writer      the YAML sink
+     * @param options     the conversion options
+     */
+    private void write(PropertiesParser.ParseResult parseResult, Writer writer, ConversionOptions options) {
+        if (options.isPreserveComments()) {
+            writeWithComments(parseResult, writer, options);
+        } else {
+            writeEntriesAsYaml(parseResult, writer, options);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void renderListWithComments(StringBuilder sb, List<Object> list,
-                                        Map<String, List<String>> commentMap,
-                                        int indentLevel, String keyPrefix) {
-        String indent = "  ".repeat(indentLevel);
-
-        for (int i = 0; i < list.size(); i++) {
-            Object item = list.get(i);
-            String fullKey = keyPrefix + "[" + i + "]";
-
-            List<String> comments = commentMap.get(fullKey);
-            if (comments != null && !comments.isEmpty()) {
-                for (String comment : comments) {
-                    sb.append(indent).append("# ").append(comment).append("\n");
-                }
-            }
-
-            if (item instanceof Map) {
-                sb.append(indent).append("-\n");
-                renderMapWithComments(sb, (Map<String, Object>) item, commentMap, indentLevel + 1, fullKey);
-            } else {
-                sb.append(indent).append("- ");
-                renderValue(sb, item);
-                sb.append("\n");
-            }
-        }
+    /**
+     * Writes parsed entries as YAML, sorted unless the options ask for source order. Later
+     * definitions of a key override earlier ones.
+     *
+     * @param parseResult the parsed entries
+     * @param writer      the YAML sink
+     * @param options     the conversion options
+     */
+    private void writeEntriesAsYaml(PropertiesParser.ParseResult parseResult, Writer writer,
+                                    ConversionOptions options) {
+        writeYaml(parseResult, order(parseResult, options), sink(writer, options), options);
+        flush(writer);
     }
 
-    private void renderValue(StringBuilder sb, Object value) {
-        if (value == null) {
-            sb.append("null");
-        } else if (value instanceof String) {
-            String str = (String) value;
-            if (needsQuoting(str)) {
-                sb.append("\"").append(escapeString(str)).append("\"");
-            } else {
-                sb.append(str);
-            }
-        } else if (value instanceof Boolean || value instanceof Number) {
-            sb.append(value);
-        } else {
-            sb.append(value);
+    /**
+     * Returns the indices of the entries in the order they are written: as parsed in source
+     * order, so no sort runs at all, and otherwise by the key order.
+     */
+    private int[] order(PropertiesParser.ParseResult parseResult, ConversionOptions options) {
+        if (!options.isSourceOrder()) {
+            return keyOrder.order(parseResult.keys());
+        }
+        int[] order = new int[parseResult.size()];
+        for (int entry = 0; entry < order.length; entry++) {
+            order[entry] = entry;
         }
+        return order;
     }
 
-    private boolean needsQuoting(String value) {
-        if (value.isEmpty()) {
-            return true;
-        }
+    /**
+     * Returns the sink for uncommented output: the built-in emitter, or SnakeYAML's if the
+     * options ask for it.
+     */
+    private static YamlSink sink(Writer writer, ConversionOptions options) {
+        return options.isSnakeYamlEmitter() ? new SnakeYamlSink(writer) : new YamlEmitter(writer);
+    }
 
-        String trimmed = value.trim();
-        if (!trimmed.equals(value)) {
-            return true;
-        }
+    /**
+     * Writes entries to a sink in the given order, straight from the key stream when possible and
+     * through a {@link KeyTree} when the keys need one.
+     *
+     * @param parseResult the parsed entries
+     * @param order       the indices of the entries in output order
+     * @param sink        the receiver of the document
+     * @param options     the conversion options
+     */
+    private void writeYaml(PropertiesParser.ParseResult parseResult, int[] order, YamlSink sink,
+                           ConversionOptions options) {
+        IntFunction<String> key = item -> parseResult.key(order[item]);
+        IntFunction<String> value = item -> parseResult.value(order[item]);
+        try {
+            if (KeyStreamWriter.write(order.length, key, value, interner, sink)) {
+                return;
+            }
 
-        if (value.contains(":") || value.contains("#") || value.contains("\"") ||
-            value.contains("'") || value.contains("[") || value.contains("]") ||
-            value.contains("{") || value.contains("}") || value.contains(">") ||
-            value.contains("|") || value.contains("&") || value.contains("*")) {
-            return true;
+            // The tree keeps children in insertion order
+            KeyTree tree = new KeyTree(options, interner);
+            KeyPath path = new KeyPath();
+            for (int item = 0; item < order.length; item++) {
+                tree.put(path.tokenize(key.apply(item)), value.apply(item));
+            }
+            tree.write(sink);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write YAML output", e);
         }
-
-        String lower = value.toLowerCase();
-        return lower.equals("true") || lower.equals("false") ||
-               lower.equals("null") || lower.equals("yes") || lower.equals("no");
     }
 
-    private String escapeString(String value) {
-        return value.replace("\\", "\\\\")
-                    .replace("\"", "\\\"")
-                    .replace("\n", "\\n")
-                    .replace("\r", "\\r")
-                    .replace("\t", "\\t");
+    private void writeWithComments(PropertiesParser.ParseResult parseResult, Writer writer,
+                                   ConversionOptions options) {
+        int[] order = order(parseResult, options);
+        writeYaml(parseResult, order, new CommentingYamlSink(writer, parseResult, order), options);
+        flush(writer);
     }
 }
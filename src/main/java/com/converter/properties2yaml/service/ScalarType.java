@@ -0,0 +1,166 @@
+package com.converter.properties2yaml.service;
+
+/**
+ * The YAML scalar type a property value converts to.
+ * <p>
+ * {@link #classify(String)} decides the type in a single scan over the characters without
+ * allocating or throwing, so callers only invoke {@link Integer#parseInt}, {@link Long#parseLong}
+ * or {@link Double#parseDouble} once the parse is known to succeed. The accepted forms mirror
+ * what those parsers accept for decimal input, except that surrounding whitespace, which
+ * {@code parseDouble} ignores, makes a value a string: {@code "1 "} stays {@code "1 "} rather
+ * than becoming {@code 1.0}.
+ */
+enum ScalarType {
+    STRING,
+    BOOLEAN,
+    INTEGER,
+    LONG,
+    DOUBLE;
+
+    /**
+     * Classifies a raw property value.
+     *
+     * @param value the property value
+     * @return the narrowest type the value can be converted to
+     */
+    static ScalarType classify(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return STRING;
+        }
+
+        if ((length == 4 || length == 5) && isBooleanLiteral(value)) {
+            return BOOLEAN;
+        }
+
+        ScalarType integral = classifyIntegral(value, length);
+        if (integral != null) {
+            return integral;
+        }
+
+        return isDecimalFloat(value, length) ? DOUBLE : STRING;
+    }
+
+    private static boolean isBooleanLiteral(String value) {
+        return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value);
+    }
+
+    /**
+     * Classifies an optionally signed run of ASCII digits, accumulating in negative space like
+     * {@link Long#parseLong} so that {@code Long.MIN_VALUE} is representable.
+     *
+     * @return INTEGER or LONG when the value is integral and in range, DOUBLE when it is integral
+     * but overflows a long, or {@code null} when it is not an integer at all
+     */
+    private static ScalarType classifyIntegral(String value, int end) {
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == end) {
+            return null;
+        }
+
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        boolean overflow = false;
+
+        for (; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            if (overflow) {
+                continue;
+            }
+            if (result < multiplyMin) {
+                overflow = true;
+                continue;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                overflow = true;
+                continue;
+            }
+            result -= digit;
+        }
+
+        if (overflow) {
+            return DOUBLE;
+        }
+        long number = negative ? result : -result;
+        return number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE ? INTEGER : LONG;
+    }
+
+    /**
+     * Checks the decimal grammar accepted by {@link Double#parseDouble} without surrounding
+     * whitespace: an optional sign, {@code NaN}, {@code Infinity}, or digits with an optional
+     * fraction and exponent, followed by an optional {@code f/F/d/D} suffix.
+     */
+    private static boolean isDecimalFloat(String value, int end) {
+        int i = 0;
+        char ch = value.charAt(i);
+        if (ch == '-' || ch == '+') {
+            i++;
+            if (i == end) {
+                return false;
+            }
+            ch = value.charAt(i);
+        }
+
+        if (ch == 'N') {
+            return value.startsWith("NaN", i) && i + 3 == end;
+        }
+        if (ch == 'I') {
+            return value.startsWith("Infinity", i) && i + 8 == end;
+        }
+
+        int digits = 0;
+        while (i < end && isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < end && value.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && isDigit(value.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+
+        if (i < end) {
+            char suffix = value.charAt(i);
+            if (suffix == 'f' || suffix == 'F' || suffix == 'd' || suffix == 'D') {
+                i++;
+            }
+        }
+
+        return i == end;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
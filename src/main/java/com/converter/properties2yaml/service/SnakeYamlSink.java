@@ -0,0 +1,123 @@
+package com.converter.properties2yaml.service;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes sink events through the SnakeYAML emitter.
+ * <p>
+ * The events are the ones {@code Yaml.dump} would generate for the equivalent nested maps and
+ * lists: scalars go through the same representer and implicit tag resolution, so the output is
+ * identical, but no node graph of the whole document is built first.
+ */
+final class SnakeYamlSink implements YamlSink {
+
+    private final DumperOptions options;
+    private final Emitter emitter;
+    private final Representer representer;
+    private final Resolver resolver = new Resolver();
+
+    SnakeYamlSink(Writer writer) {
+        this.options = dumperOptions();
+        this.emitter = new Emitter(writer, options);
+        this.representer = new Representer(options);
+        // As Yaml does for its representer
+        representer.setDefaultFlowStyle(options.getDefaultFlowStyle());
+        representer.setDefaultScalarStyle(options.getDefaultScalarStyle());
+    }
+
+    private static DumperOptions dumperOptions() {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setPrettyFlow(true);
+        options.setIndent(2);
+        options.setIndicatorIndent(2);
+        options.setIndentWithIndicator(true);
+        return options;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(),
+                                            options.getTags()));
+    }
+
+    @Override
+    public void startMap() throws IOException {
+        emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null,
+                                           options.getDefaultFlowStyle()));
+    }
+
+    @Override
+    public void endMap() throws IOException {
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    @Override
+    public void startList() throws IOException {
+        emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null,
+                                            options.getDefaultFlowStyle()));
+    }
+
+    @Override
+    public void endList() throws IOException {
+        emitter.emit(new SequenceEndEvent(null, null));
+    }
+
+    @Override
+    public void key(String name) throws IOException {
+        emitScalar(name);
+    }
+
+    @Override
+    public void element(int position) {
+        // Sequence entries carry no key of their own
+    }
+
+    @Override
+    public void scalar(byte type, long bits, String text) throws IOException {
+        emitScalar(switch (type) {
+            case KeyTree.STRING -> text;
+            case KeyTree.BOOLEAN -> bits != 0;
+            case KeyTree.INTEGER -> (int) bits;
+            case KeyTree.LONG -> bits;
+            case KeyTree.DOUBLE -> Double.longBitsToDouble(bits);
+            default -> null;
+        });
+    }
+
+    private void emitScalar(Object value) throws IOException {
+        ScalarNode node = (ScalarNode) representer.represent(value);
+        Tag tag = node.getTag();
+        ImplicitTuple implicit = new ImplicitTuple(
+                tag.equals(resolver.resolve(NodeId.scalar, node.getValue(), true)),
+                tag.equals(resolver.resolve(NodeId.scalar, node.getValue(), false)));
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, node.getValue(), null, null,
+                                     node.getScalarStyle()));
+    }
+
+    @Override
+    public void end() throws IOException {
+        emitter.emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+        emitter.emit(new StreamEndEvent(null, null));
+    }
+}
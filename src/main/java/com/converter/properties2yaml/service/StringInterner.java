@@ -0,0 +1,131 @@
+package com.converter.properties2yaml.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe interner for key segments, shared by every conversion of a converter.
+ * <p>
+ * Names such as {@code spring}, {@code datasource} or {@code enabled} are cut out of thousands of
+ * keys per file and out of the same files request after request. The interner keeps one instance
+ * of each in a fixed open-addressing table that is probed with the characters of the key range,
+ * so a segment seen before is returned without creating a substring. A miss stores the new
+ * segment in the first free slot of its probe window, or replaces an entry of the window when it
+ * is full, so memory never grows past the configured capacity. Segments longer than
+ * {@link #MAX_LENGTH} are rarely repeated and are not interned.
+ * <p>
+ * Interning is best effort: an entry can be replaced at any time, so callers that compare names
+ * by reference still need their own exact table, as {@link KeyTree} keeps per tree. The hit and
+ * miss counts are kept to tune the capacity.
+ */
+public final class StringInterner {
+
+    /**
+     * The capacity used when none is configured.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    static final int MAX_LENGTH = 64;
+
+    private static final int PROBES = 4;
+
+    // Slots are read and written without locking: a String is immutable and safely published
+    // through its final fields, so a racing reader sees null, the old entry or the new one, and
+    // each is checked against the requested characters before it is returned
+    private final String[] table;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates an interner.
+     *
+     * @param capacity the maximum number of segments kept, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public StringInterner(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Interner capacity must be between 1 and 2^30: " + capacity);
+        }
+        this.table = new String[Math.max(PROBES, Integer.highestOneBit(capacity - 1) << 1)];
+    }
+
+    /**
+     * Returns the shared instance of {@code key.substring(start, end)}.
+     *
+     * @param key   the property key
+     * @param start the start of the segment in the key
+     * @param end   the end of the segment in the key
+     * @return the segment
+     */
+    String intern(String key, int start, int end) {
+        int length = end - start;
+        if (length > MAX_LENGTH) {
+            return key.substring(start, end);
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+
+        int mask = table.length - 1;
+        int first = (hash ^ (hash >>> 16)) & mask;
+        int free = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (first + probe) & mask;
+            String entry = table[slot];
+            if (entry == null) {
+                if (free < 0) {
+                    free = slot;
+                }
+            } else if (entry.hashCode() == hash && entry.length() == length
+                    && key.regionMatches(start, entry, 0, length)) {
+                hits.increment();
+                return entry;
+            }
+        }
+
+        misses.increment();
+        String segment = length == key.length() ? key : key.substring(start, end);
+        // A full window gives up the slot its hash picks, so no one entry is always the victim
+        table[free >= 0 ? free : (first + (hash >>> 30)) & mask] = segment;
+        return segment;
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return table.length;
+    }
+
+    /**
+     * Returns the number of lookups that found the segment already interned.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to create the segment.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of lookups that were hits.
+     *
+     * @return the hit rate between 0 and 1, or 0 before the first lookup
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,780 @@
+package com.converter.properties2yaml.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Writes sink events as block YAML straight to an {@link Appendable}.
+ * <p>
+ * The output is byte-identical to {@link SnakeYamlSink} with the converter's dumper options:
+ * block style, an indent and indicator indent of 2, indentation with indicators and a line width
+ * of 80. The emitter tracks the column and indentation the way SnakeYAML's {@code Emitter} does,
+ * resolves implicit tags with the same patterns and picks scalar styles by the same analysis, but
+ * it needs no representer, node or event objects and no look-ahead queue: the only decision that
+ * depends on the next event, whether a collection is empty, is deferred until that event arrives.
+ */
+final class YamlEmitter implements YamlSink {
+
+    private static final int INDENT = 2;
+    private static final int INDICATOR_INDENT = 2;
+    private static final int BEST_WIDTH = 80;
+    private static final int MAX_SIMPLE_KEY_LENGTH = 128;
+
+    // Tags in the short form the emitter writes them in
+    private static final String STR = "!!str";
+    private static final String BOOL = "!!bool";
+    private static final String INT = "!!int";
+    private static final String FLOAT = "!!float";
+    private static final String NULL = "!!null";
+    private static final String BINARY = "!!binary";
+    private static final String MERGE = "!!merge";
+    private static final String TIMESTAMP = "!!timestamp";
+    private static final String YAML = "!!yaml";
+
+    // The patterns of SnakeYAML's implicit resolver
+    private static final Pattern BOOL_PATTERN = Pattern.compile(
+            "^(?:yes|Yes|YES|no|No|NO|true|True|TRUE|false|False|FALSE|on|On|ON|off|Off|OFF)$");
+    private static final Pattern INT_PATTERN = Pattern.compile(
+            "^(?:[-+]?0b_*[0-1][0-1_]*|[-+]?0_*[0-7][0-7_]*|[-+]?(?:0|[1-9][0-9_]*)"
+                    + "|[-+]?0x_*[0-9a-fA-F][0-9a-fA-F_]*|[-+]?[1-9][0-9_]*(?::[0-5]?[0-9])+)$");
+    private static final Pattern FLOAT_PATTERN = Pattern.compile(
+            "^([-+]?(?:[0-9][0-9_]*)\\.[0-9_]*(?:[eE][-+]?[0-9]+)?|[-+]?(?:[0-9][0-9_]*)(?:[eE][-+]?[0-9]+)"
+                    + "|[-+]?\\.[0-9_]+(?:[eE][-+]?[0-9]+)?|[-+]?[0-9][0-9_]*(?::[0-5]?[0-9])+\\.[0-9_]*"
+                    + "|[-+]?\\.(?:inf|Inf|INF)|\\.(?:nan|NaN|NAN))$");
+    private static final Pattern MERGE_PATTERN = Pattern.compile("^(?:<<)$");
+    private static final Pattern NULL_PATTERN = Pattern.compile("^(?:~|null|Null|NULL| )$");
+    private static final Pattern TIMESTAMP_PATTERN = Pattern.compile(
+            "^(?:[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]|[0-9][0-9][0-9][0-9]-[0-9][0-9]?-[0-9][0-9]?"
+                    + "(?:[Tt]|[ \t]+)[0-9][0-9]?:[0-9][0-9]:[0-9][0-9](?:\\.[0-9]*)?"
+                    + "(?:[ \t]*(?:Z|[-+][0-9][0-9]?(?::[0-9][0-9])?))?)$");
+    private static final Pattern YAML_PATTERN = Pattern.compile("^(?:!|&|\\*)$");
+    private static final Pattern LEADING_ZERO_PATTERN = Pattern.compile("0[0-9_]+");
+
+    // Results of the scalar analysis; flow plain scalars are never needed at flow level 0
+    private static final int EMPTY = 1;
+    private static final int MULTILINE = 1 << 1;
+    private static final int ALLOW_BLOCK_PLAIN = 1 << 2;
+    private static final int ALLOW_SINGLE_QUOTED = 1 << 3;
+    private static final int ALLOW_BLOCK = 1 << 4;
+
+    private enum Style { PLAIN, SINGLE_QUOTED, DOUBLE_QUOTED, LITERAL }
+
+    private static final byte NONE = -1;
+
+    private final Appendable out;
+
+    private int column;
+    private boolean whitespace = true;
+    private boolean indention = true;
+    private boolean mappingContext;
+
+    // The current indent, -1 before the root collection, and the enclosing ones
+    private int indent = -1;
+    private int[] indents = new int[16];
+    private int indentDepth;
+
+    // Whether each open block list has no items yet
+    private boolean[] firstItem = new boolean[16];
+    private int depth = -1;
+
+    // A collection that was started but is not yet known to be empty
+    private byte pending = NONE;
+
+    // The scalar being written, as SnakeYAML's representer would produce it
+    private String tag;
+    private String value;
+    private boolean literal;
+
+    YamlEmitter(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin() {
+        // The first document starts implicitly
+    }
+
+    @Override
+    public void startMap() {
+        openPending();
+        pending = KeyTree.MAP;
+    }
+
+    @Override
+    public void endMap() throws IOException {
+        close("{", "}");
+    }
+
+    @Override
+    public void startList() {
+        openPending();
+        pending = KeyTree.LIST;
+    }
+
+    @Override
+    public void endList() throws IOException {
+        close("[", "]");
+    }
+
+    @Override
+    public void key(String name) throws IOException {
+        openPending();
+        writeIndent();
+        represent(name);
+        int analysis = analyze(value);
+        if (tag.length() + value.length() < MAX_SIMPLE_KEY_LENGTH && (analysis & (EMPTY | MULTILINE)) == 0) {
+            writeScalar(analysis, true);
+            writeIndicator(":", false, false, false);
+        } else {
+            writeIndicator("?", true, false, true);
+            writeScalar(analysis, false);
+            writeIndent();
+            writeIndicator(":", true, false, true);
+        }
+        mappingContext = true;
+    }
+
+    @Override
+    public void element(int position) throws IOException {
+        openPending();
+        writeIndent();
+        boolean first = firstItem[depth];
+        if (first) {
+            writeWhitespace(INDICATOR_INDENT);
+        }
+        writeIndicator("-", true, false, true);
+        if (first) {
+            indent += INDICATOR_INDENT;
+            firstItem[depth] = false;
+        }
+        mappingContext = false;
+    }
+
+    @Override
+    public void scalar(byte type, long bits, String text) throws IOException {
+        openPending();
+        switch (type) {
+            case KeyTree.STRING -> represent(text);
+            case KeyTree.BOOLEAN -> represent(BOOL, bits != 0 ? "true" : "false");
+            case KeyTree.INTEGER, KeyTree.LONG -> represent(INT, Long.toString(bits));
+            case KeyTree.DOUBLE -> represent(FLOAT, doubleText(Double.longBitsToDouble(bits)));
+            default -> represent(NULL, "null");
+        }
+        writeScalar(analyze(value), false);
+    }
+
+    @Override
+    public void end() throws IOException {
+        writeIndent();
+    }
+
+    /**
+     * Opens a started collection in block style now that its first entry has arrived.
+     */
+    private void openPending() {
+        if (pending == NONE) {
+            return;
+        }
+        boolean list = pending == KeyTree.LIST;
+        pending = NONE;
+        // A list that is the value of a key is not indented further than the key
+        increaseIndent(false, list && mappingContext && !indention);
+        depth++;
+        if (depth == firstItem.length) {
+            firstItem = Arrays.copyOf(firstItem, depth * 2);
+        }
+        firstItem[depth] = list;
+    }
+
+    private void close(String open, String close) throws IOException {
+        if (pending != NONE) {
+            // An empty collection is written in flow style
+            pending = NONE;
+            writeIndicator(open, true, true, false);
+            increaseIndent(true, false);
+            writeIndent();
+            indent = indents[--indentDepth];
+            writeIndicator(close, false, false, false);
+        } else {
+            indent = indents[--indentDepth];
+            depth--;
+        }
+    }
+
+    private void increaseIndent(boolean flow, boolean indentless) {
+        if (indentDepth == indents.length) {
+            indents = Arrays.copyOf(indents, indentDepth * 2);
+        }
+        indents[indentDepth++] = indent;
+        if (indent < 0) {
+            indent = flow ? INDENT : 0;
+        } else if (!indentless) {
+            indent += INDENT;
+        }
+    }
+
+    private void represent(String text) {
+        if (!isPrintable(text)) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (!new String(bytes, StandardCharsets.UTF_8).equals(text)) {
+                throw new IllegalArgumentException("Value contains an unpaired surrogate");
+            }
+            tag = BINARY;
+            value = Base64.getEncoder().encodeToString(bytes);
+            literal = true;
+        } else {
+            tag = STR;
+            value = text;
+            literal = hasLineBreak(text);
+        }
+    }
+
+    private void represent(String tag, String value) {
+        this.tag = tag;
+        this.value = value;
+        this.literal = false;
+    }
+
+    private static String doubleText(double value) {
+        if (Double.isNaN(value)) {
+            return ".NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? ".inf" : "-.inf";
+        }
+        return Double.toString(value);
+    }
+
+    private void writeScalar(int analysis, boolean simpleKey) throws IOException {
+        boolean plainImplicit = resolve(value) == tag;
+        Style style = chooseStyle(analysis, plainImplicit, simpleKey);
+        if (style != Style.PLAIN && !STR.equals(tag)) {
+            writeIndicator(tag, true, false, false);
+        }
+
+        increaseIndent(true, false);
+        boolean split = !simpleKey;
+        switch (style) {
+            case PLAIN -> writePlain(value, split);
+            case SINGLE_QUOTED -> writeSingleQuoted(value, split);
+            case DOUBLE_QUOTED -> writeDoubleQuoted(value, split);
+            case LITERAL -> writeLiteral(value);
+        }
+        indent = indents[--indentDepth];
+    }
+
+    private Style chooseStyle(int analysis, boolean plainImplicit, boolean simpleKey) {
+        if (!literal && plainImplicit
+                && !(simpleKey && (analysis & (EMPTY | MULTILINE)) != 0)
+                && (analysis & ALLOW_BLOCK_PLAIN) != 0) {
+            return Style.PLAIN;
+        }
+        if (literal) {
+            if (!simpleKey && (analysis & ALLOW_BLOCK) != 0) {
+                return Style.LITERAL;
+            }
+        } else if ((analysis & ALLOW_SINGLE_QUOTED) != 0 && !(simpleKey && (analysis & MULTILINE) != 0)) {
+            return Style.SINGLE_QUOTED;
+        }
+        return Style.DOUBLE_QUOTED;
+    }
+
+    /**
+     * Returns the tag SnakeYAML's resolver gives a plain scalar: the first pattern registered for
+     * its first character that matches within the pattern's length limit, or {@code !!str}.
+     */
+    static String resolve(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return NULL;
+        }
+        char first = value.charAt(0);
+        switch (first) {
+            case 'y', 'Y', 'o', 'O', 't', 'T', 'f', 'F' -> {
+                if (length <= 10 && BOOL_PATTERN.matcher(value).matches()) {
+                    return BOOL;
+                }
+            }
+            case 'n', 'N' -> {
+                if (length <= 10 && BOOL_PATTERN.matcher(value).matches()) {
+                    return BOOL;
+                }
+                if (length <= 10 && NULL_PATTERN.matcher(value).matches()) {
+                    return NULL;
+                }
+            }
+            case '~' -> {
+                if (length == 1) {
+                    return NULL;
+                }
+            }
+            case '-', '+', '.', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                if (length <= 1024 && first != '.' && INT_PATTERN.matcher(value).matches()) {
+                    return INT;
+                }
+                if (length <= 1024 && FLOAT_PATTERN.matcher(value).matches()) {
+                    return FLOAT;
+                }
+                if (length <= 50 && first >= '0' && first <= '9' && TIMESTAMP_PATTERN.matcher(value).matches()) {
+                    return TIMESTAMP;
+                }
+            }
+            case '<' -> {
+                if (length <= 10 && MERGE_PATTERN.matcher(value).matches()) {
+                    return MERGE;
+                }
+            }
+            case '!', '&', '*' -> {
+                if (length <= 10 && YAML_PATTERN.matcher(value).matches()) {
+                    return YAML;
+                }
+            }
+            default -> {
+            }
+        }
+        return STR;
+    }
+
+    /**
+     * Analyzes a scalar for the styles it may be written in, exactly as SnakeYAML does.
+     */
+    private static int analyze(String scalar) {
+        int length = scalar.length();
+        if (length == 0) {
+            return EMPTY | ALLOW_BLOCK_PLAIN | ALLOW_SINGLE_QUOTED;
+        }
+
+        boolean blockIndicators = false;
+        boolean lineBreaks = false;
+        boolean specialCharacters = false;
+        boolean leadingSpace = false;
+        boolean leadingBreak = false;
+        boolean trailingSpace = false;
+        boolean trailingBreak = false;
+        boolean breakSpace = false;
+        boolean spaceBreak = false;
+        boolean leadingZero = LEADING_ZERO_PATTERN.matcher(scalar).matches();
+
+        if (scalar.startsWith("---") || scalar.startsWith("...")) {
+            blockIndicators = true;
+        }
+
+        boolean precededByWhitespace = true;
+        boolean followedByWhitespace = length == 1 || isBlankOrBreak(scalar.codePointAt(1), true);
+        boolean previousSpace = false;
+        boolean previousBreak = false;
+
+        int index = 0;
+        while (index < length) {
+            int c = scalar.codePointAt(index);
+            if (index == 0) {
+                if ("#,[]{}&*!|>'\"%@`".indexOf(c) != -1) {
+                    blockIndicators = true;
+                }
+                if ((c == '?' || c == ':' || c == '-') && followedByWhitespace) {
+                    blockIndicators = true;
+                }
+            } else {
+                if (c == ':' && followedByWhitespace) {
+                    blockIndicators = true;
+                }
+                if (c == '#' && precededByWhitespace) {
+                    blockIndicators = true;
+                }
+            }
+
+            boolean isLineBreak = isLineBreak(c);
+            if (isLineBreak) {
+                lineBreaks = true;
+            }
+            if (!(c == '\n' || (0x20 <= c && c <= 0x7E)) && !isUnicodePrintable(c)) {
+                specialCharacters = true;
+            }
+
+            if (c == ' ') {
+                if (index == 0) {
+                    leadingSpace = true;
+                }
+                if (index == length - 1) {
+                    trailingSpace = true;
+                }
+                if (previousBreak) {
+                    breakSpace = true;
+                }
+                previousSpace = true;
+                previousBreak = false;
+            } else if (isLineBreak) {
+                if (index == 0) {
+                    leadingBreak = true;
+                }
+                if (index == length - 1) {
+                    trailingBreak = true;
+                }
+                if (previousSpace) {
+                    spaceBreak = true;
+                }
+                previousSpace = false;
+                previousBreak = true;
+            } else {
+                previousSpace = false;
+                previousBreak = false;
+            }
+
+            // SnakeYAML looks one code point further than the next one here
+            index += Character.charCount(c);
+            precededByWhitespace = isBlankOrBreak(c, false) || isLineBreak;
+            followedByWhitespace = true;
+            if (index + 1 < length) {
+                int nextIndex = index + Character.charCount(scalar.codePointAt(index));
+                if (nextIndex < length) {
+                    followedByWhitespace = isBlankOrBreak(scalar.codePointAt(nextIndex), false) || isLineBreak;
+                }
+            }
+        }
+
+        boolean allowBlockPlain = true;
+        boolean allowSingleQuoted = true;
+        boolean allowBlock = true;
+        if (leadingSpace || leadingBreak || trailingSpace || trailingBreak || leadingZero) {
+            allowBlockPlain = false;
+        }
+        if (trailingSpace) {
+            allowBlock = false;
+        }
+        if (breakSpace) {
+            allowBlockPlain = allowSingleQuoted = false;
+        }
+        if (spaceBreak || specialCharacters) {
+            allowBlockPlain = allowSingleQuoted = allowBlock = false;
+        }
+        if (blockIndicators) {
+            allowBlockPlain = false;
+        }
+        return (lineBreaks ? MULTILINE : 0)
+                | (allowBlockPlain ? ALLOW_BLOCK_PLAIN : 0)
+                | (allowSingleQuoted ? ALLOW_SINGLE_QUOTED : 0)
+                | (allowBlock ? ALLOW_BLOCK : 0);
+    }
+
+    private static boolean isLineBreak(int c) {
+        return c == '\n' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Returns whether a code point is NUL, a space or a tab, or with {@code orBreak} also a
+     * carriage return or line break.
+     */
+    private static boolean isBlankOrBreak(int c, boolean orBreak) {
+        return c == '\0' || c == ' ' || c == '\t' || (orBreak && (c == '\r' || isLineBreak(c)));
+    }
+
+    private static boolean isUnicodePrintable(int c) {
+        return c == 0x85 || (c >= 0xA0 && c <= 0xD7FF) || (c >= 0xE000 && c <= 0xFFFD)
+                || (c >= 0x10000 && c <= 0x10FFFF);
+    }
+
+    private static boolean isPrintable(int c) {
+        return (c >= 0x20 && c <= 0x7E) || c == 0x9 || c == 0xA || c == 0xD || isUnicodePrintable(c);
+    }
+
+    private static boolean isPrintable(String text) {
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            if (!isPrintable(c)) {
+                return false;
+            }
+            i += Character.charCount(c);
+        }
+        return true;
+    }
+
+    private static boolean hasLineBreak(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isLineBreak(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndicator(String indicator, boolean needWhitespace, boolean whitespace,
+                                boolean indentation) throws IOException {
+        if (!this.whitespace && needWhitespace) {
+            out.append(' ');
+            column++;
+        }
+        out.append(indicator);
+        column += indicator.length();
+        this.whitespace = whitespace;
+        this.indention = this.indention && indentation;
+    }
+
+    private void writeIndent() throws IOException {
+        int target = Math.max(indent, 0);
+        if (!indention || column > target || (column == target && !whitespace)) {
+            writeLineBreak(null);
+        }
+        writeWhitespace(target - column);
+    }
+
+    private void writeWhitespace(int length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        whitespace = true;
+        for (int i = 0; i < length; i++) {
+            out.append(' ');
+        }
+        column += length;
+    }
+
+    private void writeLineBreak(String data) throws IOException {
+        whitespace = true;
+        indention = true;
+        column = 0;
+        out.append(data == null ? "\n" : data);
+    }
+
+    private void writeBreaks(String text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char br = text.charAt(i);
+            writeLineBreak(br == '\n' ? null : String.valueOf(br));
+        }
+    }
+
+    private void writeText(String text, int start, int end) throws IOException {
+        writeSlice(text, start, end);
+        column += end - start;
+    }
+
+    /**
+     * Writes part of a string, without the substring {@link Appendable#append(CharSequence, int, int)}
+     * would create when the output is a {@link Writer}.
+     */
+    private void writeSlice(String text, int start, int end) throws IOException {
+        if (out instanceof Writer writer) {
+            writer.write(text, start, end - start);
+        } else {
+            out.append(text, start, end);
+        }
+    }
+
+    private void writePlain(String text, boolean split) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (!whitespace) {
+            out.append(' ');
+            column++;
+        }
+        whitespace = false;
+        indention = false;
+        boolean spaces = false;
+        boolean breaks = false;
+        int start = 0;
+        for (int end = 0; end <= text.length(); end++) {
+            char ch = end < text.length() ? text.charAt(end) : 0;
+            if (spaces) {
+                if (ch != ' ') {
+                    if (start + 1 == end && column > BEST_WIDTH && split) {
+                        writeIndent();
+                        whitespace = false;
+                        indention = false;
+                    } else {
+                        writeText(text, start, end);
+                    }
+                    start = end;
+                }
+            } else if (breaks) {
+                if (!isLineBreak(ch)) {
+                    if (text.charAt(start) == '\n') {
+                        writeLineBreak(null);
+                    }
+                    writeBreaks(text, start, end);
+                    writeIndent();
+                    whitespace = false;
+                    indention = false;
+                    start = end;
+                }
+            } else if (ch == 0 || ch == ' ' || isLineBreak(ch)) {
+                writeText(text, start, end);
+                start = end;
+            }
+            if (ch != 0) {
+                spaces = ch == ' ';
+                breaks = isLineBreak(ch);
+            }
+        }
+    }
+
+    private void writeSingleQuoted(String text, boolean split) throws IOException {
+        writeIndicator("'", true, false, false);
+        boolean spaces = false;
+        boolean breaks = false;
+        int start = 0;
+        for (int end = 0; end <= text.length(); end++) {
+            char ch = end < text.length() ? text.charAt(end) : 0;
+            if (spaces) {
+                if (ch != ' ') {
+                    if (start + 1 == end && column > BEST_WIDTH && split && start != 0 && end != text.length()) {
+                        writeIndent();
+                    } else {
+                        writeText(text, start, end);
+                    }
+                    start = end;
+                }
+            } else if (breaks) {
+                if (ch == 0 || !isLineBreak(ch)) {
+                    if (text.charAt(start) == '\n') {
+                        writeLineBreak(null);
+                    }
+                    writeBreaks(text, start, end);
+                    writeIndent();
+                    start = end;
+                }
+            } else if (ch == 0 || ch == ' ' || ch == '\'' || isLineBreak(ch)) {
+                if (start < end) {
+                    writeText(text, start, end);
+                    start = end;
+                }
+            }
+            if (ch == '\'') {
+                out.append("''");
+                column += 2;
+                start = end + 1;
+            }
+            if (ch != 0) {
+                spaces = ch == ' ';
+                breaks = isLineBreak(ch);
+            }
+        }
+        writeIndicator("'", false, false, false);
+    }
+
+    private void writeDoubleQuoted(String text, boolean split) throws IOException {
+        writeIndicator("\"", true, false, false);
+        int start = 0;
+        for (int end = 0; end <= text.length(); end++) {
+            int ch = end < text.length() ? text.charAt(end) : -1;
+            if (ch == -1 || "\"\\\u0085\u2028\u2029\uFEFF".indexOf(ch) != -1 || !(ch >= 0x20 && ch <= 0x7E)) {
+                if (start < end) {
+                    writeText(text, start, end);
+                    start = end;
+                }
+                if (ch != -1) {
+                    String data = escape((char) ch);
+                    if (data == null) {
+                        int codePoint = ch;
+                        if (Character.isHighSurrogate((char) ch) && end + 1 < text.length()) {
+                            codePoint = Character.toCodePoint((char) ch, text.charAt(end + 1));
+                        }
+                        if (isPrintable(codePoint)) {
+                            data = new String(Character.toChars(codePoint));
+                            if (Character.charCount(codePoint) == 2) {
+                                end++;
+                            }
+                        } else if (ch <= 0xFF) {
+                            String s = "0" + Integer.toString(ch, 16);
+                            data = "\\x" + s.substring(s.length() - 2);
+                        } else if (Character.charCount(codePoint) == 2) {
+                            end++;
+                            String s = "000" + Long.toHexString(codePoint);
+                            data = "\\U" + s.substring(s.length() - 8);
+                        } else {
+                            String s = "000" + Integer.toString(ch, 16);
+                            data = "\\u" + s.substring(s.length() - 4);
+                        }
+                    }
+                    out.append(data);
+                    column += data.length();
+                    start = end + 1;
+                }
+            }
+            if (0 < end && end < text.length() - 1 && (ch == ' ' || start >= end)
+                    && column + (end - start) > BEST_WIDTH && split) {
+                String data = start >= end ? "\\" : text.substring(start, end) + "\\";
+                if (start < end) {
+                    start = end;
+                }
+                out.append(data);
+                column += data.length();
+                writeIndent();
+                whitespace = false;
+                indention = false;
+                if (text.charAt(start) == ' ') {
+                    out.append('\\');
+                    column++;
+                }
+            }
+        }
+        writeIndicator("\"", false, false, false);
+    }
+
+    private static String escape(char ch) {
+        return switch (ch) {
+            case '\0' -> "\\0";
+            case '\u0007' -> "\\a";
+            case '\b' -> "\\b";
+            case '\t' -> "\\t";
+            case '\n' -> "\\n";
+            case '\u000B' -> "\\v";
+            case '\f' -> "\\f";
+            case '\r' -> "\\r";
+            case '\u001B' -> "\\e";
+            case '"' -> "\\\"";
+            case '\\' -> "\\\\";
+            case '\u0085' -> "\\N";
+            case '\u00A0' -> "\\_";
+            case '\u2028' -> "\\L";
+            case '\u2029' -> "\\P";
+            default -> null;
+        };
+    }
+
+    private void writeLiteral(String text) throws IOException {
+        writeIndicator("|" + blockHints(text), true, false, false);
+        writeLineBreak(null);
+        boolean breaks = true;
+        int start = 0;
+        for (int end = 0; end <= text.length(); end++) {
+            char ch = end < text.length() ? text.charAt(end) : 0;
+            if (breaks) {
+                if (ch == 0 || !isLineBreak(ch)) {
+                    writeBreaks(text, start, end);
+                    if (ch != 0) {
+                        writeIndent();
+                    }
+                    start = end;
+                }
+            } else if (ch == 0 || isLineBreak(ch)) {
+                writeSlice(text, start, end);
+                if (ch == 0) {
+                    writeLineBreak(null);
+                }
+                start = end;
+            }
+            if (ch != 0) {
+                breaks = isLineBreak(ch);
+            }
+        }
+    }
+
+    private static String blockHints(String text) {
+        String hints = "";
+        char first = text.charAt(0);
+        if (first == ' ' || isLineBreak(first)) {
+            hints += INDENT;
+        }
+        char last = text.charAt(text.length() - 1);
+        if (!isLineBreak(last)) {
+            hints += "-";
+        } else if (text.length() == 1 || isLineBreak(text.charAt(text.length() - 2))) {
+            hints += "+";
+        }
+        return hints;
+    }
+}
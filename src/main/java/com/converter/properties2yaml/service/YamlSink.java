@@ -0,0 +1,48 @@
+package com.converter.properties2yaml.service;
+
+import java.io.IOException;
+
+/**
+ * Receives the structure of a YAML document as a sequence of events.
+ * <p>
+ * A document is {@link #begin()}, the root map, then {@link #end()}. Inside a map every value is
+ * announced by {@link #key(String)}, inside a list by {@link #element(int)}, and is then either
+ * a nested map or list or a single {@link #scalar(byte, long, String)}. Both the {@link KeyTree}
+ * and the {@link KeyStreamWriter} produce these events, so an output format only has to be
+ * written once.
+ */
+interface YamlSink {
+
+    void begin() throws IOException;
+
+    void startMap() throws IOException;
+
+    void endMap() throws IOException;
+
+    void startList() throws IOException;
+
+    void endList() throws IOException;
+
+    /**
+     * Announces the key of the next value in the current map.
+     */
+    void key(String name) throws IOException;
+
+    /**
+     * Announces the next element of the current list.
+     *
+     * @param position the index the element was defined with, or -1 for a gap
+     */
+    void element(int position) throws IOException;
+
+    /**
+     * Writes a scalar value.
+     *
+     * @param type one of the {@link KeyTree} scalar types
+     * @param bits the boolean, integral or floating-point value as stored by {@link KeyTree}
+     * @param text the value of a {@link KeyTree#STRING}, otherwise ignored
+     */
+    void scalar(byte type, long bits, String text) throws IOException;
+
+    void end() throws IOException;
+}
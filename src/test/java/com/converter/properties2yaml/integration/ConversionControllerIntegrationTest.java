@@ -2,6 +2,7 @@ package com.converter.properties2yaml.integration;
 
 import com.converter.properties2yaml.model.ConversionRequest;
 import com.converter.properties2yaml.model.ConversionResponse;
+import com.converter.properties2yaml.service.ConversionOptions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,8 +19,18 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -299,6 +310,34 @@ class ConversionControllerIntegrationTest {
             assertThat(response.getYamlContent()).contains("items:");
         }
 
+        @Test
+        @DisplayName("Should reject huge sparse indices and compact them on request")
+        void shouldBoundHugeSparseIndices() throws Exception {
+            String properties = "servers[5000000].host=x";
+
+            mockMvc.perform(post("/api/convert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new ConversionRequest(properties))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.success").value(false));
+
+            ConversionRequest request = new ConversionRequest(properties);
+            request.setListGaps(ConversionOptions.ListGaps.COMPACT);
+
+            MvcResult result = mockMvc.perform(post("/api/convert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            ConversionResponse response = objectMapper.readValue(
+                    result.getResponse().getContentAsString(), ConversionResponse.class);
+
+            assertThat(response.getYamlContent())
+                    .contains("host: x")
+                    .doesNotContain("null");
+        }
+
         @Test
         @DisplayName("Should convert multiple arrays at same level")
         void shouldConvertMultipleArraysAtSameLevel() throws Exception {
@@ -1118,6 +1157,368 @@ class ConversionControllerIntegrationTest {
                     .andExpect(content().string(org.hamcrest.Matchers.containsString("primary:")))
                     .andExpect(content().string(org.hamcrest.Matchers.containsString("replica:")));
         }
+
+        @Test
+        @DisplayName("Should keep source order when requested")
+        void shouldKeepSourceOrderWhenRequested() throws Exception {
+            String propertiesContent = """
+                    zeta.value=1
+                    app.name=TestApp
+                    zeta.other=2
+                    spring.profiles.active=dev
+                    """;
+
+            mockMvc.perform(post("/api/convert/text")
+                            .param("sourceOrder", "true")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content(propertiesContent))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("""
+                            zeta:
+                              value: 1
+                              other: 2
+                            app:
+                              name: TestApp
+                            spring:
+                              profiles:
+                                active: dev
+                            """));
+        }
+    }
+
+    // ==================== STREAMING ENDPOINT TESTS ====================
+
+    @Nested
+    @DisplayName("Streaming Endpoint Tests")
+    class StreamingEndpointTests {
+
+        @Test
+        @DisplayName("Should stream YAML converted from a streamed request body")
+        void shouldStreamYamlFromRequestBody() throws Exception {
+            String propertiesContent = """
+                    zeta.value=1
+                    app.name=TestApp
+                    app.tags[0]=a
+                    app.tags[1]=b
+                    """;
+
+            MvcResult result = mockMvc.perform(post("/api/convert/stream")
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .content(propertiesContent.getBytes(StandardCharsets.UTF_8)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("text/yaml"))
+                    .andExpect(content().bytes("""
+                            app:
+                              name: TestApp
+                              tags:
+                                - a
+                                - b
+                            zeta:
+                              value: 1
+                            """.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Test
+        @DisplayName("Should stream the same YAML as the text endpoint, with comments")
+        void shouldStreamSameYamlAsTextEndpoint() throws Exception {
+            String propertiesContent = """
+                    # Server
+                    server.port=8080
+                    server.name=h\u00e9llo # inline
+                    """;
+
+            String expected = mockMvc.perform(post("/api/convert/text")
+                            .param("preserveComments", "true")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content(propertiesContent))
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            MvcResult result = mockMvc.perform(post("/api/convert/stream")
+                            .param("preserveComments", "true")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content(propertiesContent))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            MvcResult streamed = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertThat(streamed.getResponse().getContentAsString(StandardCharsets.UTF_8)).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("Should stream an uploaded file as a YAML download")
+        void shouldStreamUploadedFileAsDownload() throws Exception {
+            MockMultipartFile file = new MockMultipartFile(
+                    "file",
+                    "config.properties",
+                    MediaType.TEXT_PLAIN_VALUE,
+                    "app.name=MyApp\n".getBytes(StandardCharsets.UTF_8)
+            );
+
+            MvcResult result = mockMvc.perform(multipart("/api/convert/file/stream")
+                            .file(file))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"config.yaml\""))
+                    .andExpect(content().string("app:\n  name: MyApp\n"));
+        }
+
+        @Test
+        @DisplayName("Should answer a failed streamed conversion with an error")
+        void shouldReportStreamedConversionFailure() throws Exception {
+            MvcResult result = mockMvc.perform(post("/api/convert/stream")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content("list[0]=a\nlist=b\n"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(org.hamcrest.Matchers.startsWith("# Error: Conversion failed:")));
+        }
+    }
+
+    // ==================== CONDITIONAL REQUEST TESTS ====================
+
+    @Nested
+    @DisplayName("Conditional Request Tests")
+    class ConditionalRequestTests {
+
+        private String contentDigest(String propertiesContent) throws Exception {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(propertiesContent.getBytes(StandardCharsets.UTF_8));
+            return "sha-256=:" + Base64.getEncoder().encodeToString(digest) + ":";
+        }
+
+        private String etag(String yaml) throws Exception {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(yaml.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        }
+
+        @Test
+        @DisplayName("Should answer 304 when the client already has the YAML's ETag")
+        void shouldAnswerNotModifiedForMatchingEtag() throws Exception {
+            String etag = mockMvc.perform(post("/api/convert/text")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content("app.name=Tagged\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", org.hamcrest.Matchers.matchesPattern("\"[0-9a-f]{64}\"")))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(post("/api/convert/text")
+                            .header("If-None-Match", "\"other\", " + etag)
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content("app.name=Tagged\n"))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+
+            mockMvc.perform(post("/api/convert/text")
+                            .header("If-None-Match", etag)
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content("app.name=Changed\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", org.hamcrest.Matchers.not(etag)));
+        }
+
+        @Test
+        @DisplayName("Should answer a known Content-Digest without reading the body")
+        void shouldAnswerKnownDigestWithoutBody() throws Exception {
+            String propertiesContent = "app.name=Digested\napp.tags[0]=ci\n";
+            String etag = etag("app:\n  name: Digested\n  tags:\n    - ci\n");
+
+            MvcResult first = mockMvc.perform(post("/api/convert/stream")
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .content(propertiesContent.getBytes(StandardCharsets.UTF_8)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(first))
+                    .andExpect(status().isOk());
+
+            MvcResult result = mockMvc.perform(post("/api/convert/stream")
+                            .header("Content-Digest", contentDigest(propertiesContent))
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .content(new byte[0]))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string("app:\n  name: Digested\n  tags:\n    - ci\n"));
+
+            mockMvc.perform(post("/api/convert/stream")
+                            .header("Content-Digest", contentDigest(propertiesContent))
+                            .header("If-None-Match", etag)
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .content(new byte[0]))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag));
+        }
+
+        @Test
+        @DisplayName("Should convert the body when the Content-Digest is not known")
+        void shouldConvertBodyForUnknownDigest() throws Exception {
+            String propertiesContent = "app.name=Unseen" + System.nanoTime() + "\n";
+
+            MvcResult result = mockMvc.perform(post("/api/convert/stream")
+                            .header("Content-Digest", contentDigest(propertiesContent))
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .content(propertiesContent.getBytes(StandardCharsets.UTF_8)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Trailer", "ETag"))
+                    .andExpect(header().doesNotExist("ETag"))
+                    .andExpect(content().string(org.hamcrest.Matchers.startsWith("app:\n  name: Unseen")));
+        }
+
+        @Test
+        @DisplayName("Should hold streamed YAML to compare it with If-None-Match")
+        void shouldCompareStreamedYamlWithIfNoneMatch() throws Exception {
+            String propertiesContent = "app.name=Held" + System.nanoTime() + "\n";
+            String yaml = "app:\n  name: " + propertiesContent.substring(9);
+            String etag = etag(yaml);
+
+            MvcResult result = mockMvc.perform(post("/api/convert/stream")
+                            .header("If-None-Match", "\"other\"")
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .content(propertiesContent.getBytes(StandardCharsets.UTF_8)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(header().doesNotExist("Trailer"))
+                    .andExpect(content().string(yaml));
+
+            result = mockMvc.perform(multipart("/api/convert/file/stream")
+                            .file(new MockMultipartFile("file", "held.properties", MediaType.TEXT_PLAIN_VALUE,
+                                    propertiesContent.getBytes(StandardCharsets.UTF_8)))
+                            .header("If-None-Match", etag))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+        }
+    }
+
+    // ==================== NDJSON ENDPOINT TESTS ====================
+
+    @Nested
+    @DisplayName("NDJSON Endpoint Tests")
+    class NdjsonEndpointTests {
+
+        @Test
+        @DisplayName("Should answer each request line with a response line in order")
+        void shouldAnswerEachLineInOrder() throws Exception {
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < 50; i++) {
+                lines.append(objectMapper.writeValueAsString(new ConversionRequest("app.index=" + i))).append('\n');
+            }
+            lines.append("\nnot json\n");
+            lines.append(objectMapper.writeValueAsString(new ConversionRequest("list[0]=a\nlist=b"))).append('\n');
+
+            MvcResult result = mockMvc.perform(post("/api/convert/ndjson")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(lines.toString()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            String[] responses = body.split("\n");
+            assertThat(responses).hasSize(52);
+            for (int i = 0; i < 50; i++) {
+                ConversionResponse response = objectMapper.readValue(responses[i], ConversionResponse.class);
+                assertThat(response.isSuccess()).isTrue();
+                assertThat(response.getYamlContent()).isEqualTo("app:\n  index: " + i + "\n");
+            }
+            ConversionResponse invalid = objectMapper.readValue(responses[50], ConversionResponse.class);
+            assertThat(invalid.isSuccess()).isFalse();
+            assertThat(invalid.getErrorMessage()).startsWith("Invalid request:");
+            ConversionResponse failed = objectMapper.readValue(responses[51], ConversionResponse.class);
+            assertThat(failed.isSuccess()).isFalse();
+            assertThat(failed.getErrorMessage()).startsWith("Conversion failed:");
+        }
+    }
+
+    // ==================== BATCH ENDPOINT TESTS ====================
+
+    @Nested
+    @DisplayName("Batch Endpoint Tests")
+    class BatchEndpointTests {
+
+        private List<String> entryNames(byte[] archive) throws Exception {
+            List<String> names = new ArrayList<>();
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    names.add(entry.getName());
+                }
+            }
+            return names;
+        }
+
+        @Test
+        @DisplayName("Should convert uploaded files to a ZIP in upload order with a manifest")
+        void shouldConvertUploadedFilesToZip() throws Exception {
+            MockMultipartFile first = new MockMultipartFile("files", "orders.properties",
+                    MediaType.TEXT_PLAIN_VALUE, "server.port=8081\n".getBytes(StandardCharsets.UTF_8));
+            MockMultipartFile second = new MockMultipartFile("files", "billing.properties",
+                    MediaType.TEXT_PLAIN_VALUE, "server.port=8082\n".getBytes(StandardCharsets.UTF_8));
+
+            MvcResult result = mockMvc.perform(multipart("/api/convert/batch")
+                            .file(first)
+                            .file(second))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            byte[] archive = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/zip"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertThat(entryNames(archive)).containsExactly("orders.yaml", "billing.yaml", "manifest.json");
+        }
+
+        @Test
+        @DisplayName("Should convert the properties files of an uploaded ZIP")
+        void shouldConvertUploadedZip() throws Exception {
+            ByteArrayOutputStream upload = new ByteArrayOutputStream();
+            try (ZipOutputStream zip = new ZipOutputStream(upload)) {
+                zip.putNextEntry(new ZipEntry("a/application.properties"));
+                zip.write("app.name=a\n".getBytes(StandardCharsets.UTF_8));
+                zip.putNextEntry(new ZipEntry("b/application.properties"));
+                zip.write("app.name=b\n".getBytes(StandardCharsets.UTF_8));
+            }
+
+            MvcResult result = mockMvc.perform(post("/api/convert/batch")
+                            .contentType("application/zip")
+                            .content(upload.toByteArray()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            byte[] archive = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertThat(entryNames(archive))
+                    .containsExactly("a/application.yaml", "b/application.yaml", "manifest.json");
+        }
     }
 
     // ==================== PARAMETERIZED TESTS ====================
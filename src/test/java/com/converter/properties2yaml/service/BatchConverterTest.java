@@ -0,0 +1,172 @@
+package com.converter.properties2yaml.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Batch Converter Tests")
+class BatchConverterTest {
+
+    private final BatchConverter batchConverter = new BatchConverter(new PropertiesToYamlConverter(), 2);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void shutDown() {
+        batchConverter.shutdown();
+    }
+
+    private static BatchConverter.Source source(String name, byte[] content) {
+        return new BatchConverter.Source() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public InputStream open() {
+                return new ByteArrayInputStream(content);
+            }
+        };
+    }
+
+    private static BatchConverter.Source source(String name, String content) {
+        return source(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, String> convert(List<BatchConverter.Source> sources) throws IOException {
+        return convert(batchConverter, sources);
+    }
+
+    private static Map<String, String> convert(BatchConverter batchConverter, List<BatchConverter.Source> sources)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchConverter.convert(sources, out, ConversionOptions.defaults());
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private JsonNode manifest(Map<String, String> entries) throws IOException {
+        return objectMapper.readTree(entries.get(BatchConverter.MANIFEST));
+    }
+
+    private static String file(JsonNode manifest, int index) {
+        return manifest.get("files").get(index).toString();
+    }
+
+    @Test
+    @DisplayName("Should write the YAML files in source order whichever finishes first")
+    void shouldKeepSourceOrder() throws IOException {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            large.append("app.entry").append(i).append("=").append(i).append('\n');
+        }
+
+        Map<String, String> entries = convert(List.of(
+                source("large.properties", large.toString()),
+                source("small.properties", "server.port=8080\n"),
+                source("broken.properties", "list[0]=a\nlist=b\n"),
+                source("config/small.properties", "app.name=demo\n"),
+                source("small.properties", "app.name=again\n")));
+
+        assertThat(entries.keySet()).containsExactly(
+                "large.yaml", "small.yaml", "config/small.yaml", "small-2.yaml", BatchConverter.MANIFEST);
+        assertThat(entries.get("small.yaml")).isEqualTo("server:\n  port: 8080\n");
+        JsonNode manifest = manifest(entries);
+        assertThat(manifest.get("converted").asInt()).isEqualTo(4);
+        assertThat(manifest.get("failed").asInt()).isEqualTo(1);
+        assertThat(manifest.get("skipped").asInt()).isZero();
+        assertThat(file(manifest, 2))
+                .startsWith("{\"source\":\"broken.properties\",\"status\":\"failed\",\"error\":\"Conversion failed:");
+        assertThat(file(manifest, 4))
+                .isEqualTo("{\"source\":\"small.properties\",\"status\":\"converted\",\"output\":\"small-2.yaml\"}");
+    }
+
+    @Test
+    @DisplayName("Should expand archives and skip entries that are not properties files")
+    void shouldExpandArchives() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("services/api.properties"));
+            zip.write("api.enabled=true\n".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("README.md"));
+            zip.write("notes".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("../outside.properties"));
+            zip.write("a=1\n".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("LEGACY.PROPERTIES"));
+            zip.write("b=2\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, String> entries = convert(List.of(
+                source("configs.zip", archive.toByteArray()),
+                source("empty.ZIP", new byte[0])));
+
+        assertThat(entries.keySet())
+                .containsExactly("services/api.yaml", "outside.yaml", "LEGACY.yaml", BatchConverter.MANIFEST);
+        assertThat(entries.get("services/api.yaml")).isEqualTo("api:\n  enabled: true\n");
+        JsonNode manifest = manifest(entries);
+        assertThat(file(manifest, 1))
+                .isEqualTo("{\"source\":\"README.md\",\"status\":\"skipped\",\"reason\":\"Not a .properties file\"}");
+        assertThat(file(manifest, 4))
+                .isEqualTo("{\"source\":\"empty.ZIP\",\"status\":\"failed\",\"error\":\"Archive has no entries\"}");
+    }
+
+    @Test
+    @DisplayName("Should fail archive entries and archives beyond the limits without reading them whole")
+    void shouldBoundArchiveEntries() throws IOException {
+        BatchConverter limited = new BatchConverter(new PropertiesToYamlConverter(), 2, 1024, 3);
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("bomb.properties"));
+            byte[] padding = new byte[64 * 1024];
+            Arrays.fill(padding, (byte) 'a');
+            zip.write("key=".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 256; i++) {
+                zip.write(padding);
+            }
+            for (String name : List.of("a.properties", "b.properties", "c.properties")) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write("a=1\n".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(archive.size()).isLessThan(64 * 1024);
+
+        Map<String, String> entries;
+        try {
+            entries = convert(limited, List.of(source("bomb.zip", archive.toByteArray())));
+        } finally {
+            limited.shutdown();
+        }
+
+        assertThat(entries.keySet()).containsExactly("a.yaml", "b.yaml", BatchConverter.MANIFEST);
+        JsonNode manifest = manifest(entries);
+        assertThat(manifest.get("converted").asInt()).isEqualTo(2);
+        assertThat(manifest.get("failed").asInt()).isEqualTo(2);
+        assertThat(file(manifest, 0))
+                .isEqualTo("{\"source\":\"bomb.properties\",\"status\":\"failed\",\"error\":\"Entry is larger than 1024 bytes\"}");
+        assertThat(file(manifest, 3))
+                .isEqualTo("{\"source\":\"bomb.zip\",\"status\":\"failed\",\"error\":\"Archive has more than 3 entries\"}");
+    }
+}
@@ -128,4 +128,123 @@ class CommentPreservationTest {
         int customIndex = yaml.indexOf("# Custom property");
         assertThat(springIndex).isLessThan(customIndex);
     }
+
+    @Test
+    @DisplayName("Should parse separators, escapes and continuations like plain conversion")
+    void shouldParseLikePlainConversion() {
+        String properties = """
+                # Server
+                server.port = 8080
+                greeting=caf\\u00e9
+                description=first, \\
+                    second
+                """;
+
+        String yaml = converter.convert(properties, true);
+
+        assertThat(yaml).contains("port: 8080");
+        assertThat(yaml).contains("greeting: café");
+        assertThat(yaml).contains("description: first, second");
+    }
+
+    @Test
+    @DisplayName("Should keep values that look like the old inline comment marker")
+    void shouldKeepValuesThatLookLikeInlineCommentMarker() {
+        String properties = """
+                marker="a #INLINE_COMMENT# b" # real comment
+                """;
+
+        String yaml = converter.convert(properties, true);
+
+        assertThat(yaml).contains("# real comment");
+        assertThat(yaml).contains("#INLINE_COMMENT# b");
+    }
+
+    @Test
+    @DisplayName("Should write comments above list elements and deeply nested keys")
+    void shouldAttachCommentsToListElementsAndNestedKeys() {
+        String properties = """
+                # First server
+                app.servers[0].host=a.example.com
+                # Second server
+                app.servers[1]=b.example.com
+                # Deep value
+                app.a.b.c.d=x
+                """;
+
+        String yaml = converter.convert(properties, true);
+
+        assertThat(yaml).contains("""
+                app:
+                  a:
+                    b:
+                      c:
+                        # Deep value
+                        d: x
+                  servers:
+                    -
+                      # First server
+                      host: a.example.com
+                    # Second server
+                    - b.example.com
+                """);
+    }
+
+    @Test
+    @DisplayName("Should quote and escape values that would not read back as the same string")
+    void shouldQuoteAndEscapeValues() {
+        String properties = """
+                # Values
+                a.word=Yes
+                a.indicator=x: y
+                a.path=C:\\\\temp "new"
+                a.lines=first\\nsecond\\u0001
+                a.plain=hello world
+                """;
+
+        String yaml = converter.convert(properties, true);
+
+        assertThat(yaml).contains("word: \"Yes\"");
+        assertThat(yaml).contains("indicator: \"x: y\"");
+        assertThat(yaml).contains("path: \"C:\\\\temp \\\"new\\\"\"");
+        assertThat(yaml).contains("lines: \"first\\nsecond\\x01\"");
+        assertThat(yaml).contains("plain: hello world");
+    }
+
+    @Test
+    @DisplayName("Should write multi-line values as literal and long values as folded block scalars")
+    void shouldWriteBlockScalars() {
+        String words = "lorem ipsum dolor sit amet ".repeat(60).trim();
+        String properties = "# Certificate\n"
+                + "tls.cert=-----BEGIN CERTIFICATE-----\\nMIIB\\n-----END CERTIFICATE-----\\n\n"
+                + "tls.note=first\\nsecond\n"
+                + "tls.policy=" + words + "\n";
+
+        String yaml = converter.convert(properties, true);
+
+        assertThat(yaml).contains("""
+                  cert: |
+                    -----BEGIN CERTIFICATE-----
+                    MIIB
+                    -----END CERTIFICATE-----
+                """);
+        assertThat(yaml).contains("""
+                  note: |-
+                    first
+                    second
+                """);
+        assertThat(yaml).contains("policy: >-\n    lorem ipsum");
+        assertThat(yaml.lines().filter(line -> line.startsWith("    lorem")).count()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Should fold single-line values from the fold threshold on")
+    void shouldFoldFromThreshold() {
+        String words = "abcd ".repeat(CommentingYamlSink.FOLD_THRESHOLD);
+        String below = words.substring(0, CommentingYamlSink.FOLD_THRESHOLD - 1);
+        String at = words.substring(0, CommentingYamlSink.FOLD_THRESHOLD);
+
+        assertThat(converter.convert("value=" + below + "\n", true)).isEqualTo("value: " + below + "\n");
+        assertThat(converter.convert("value=" + at + "\n", true)).startsWith("value: >-\n  abcd abcd");
+    }
 }
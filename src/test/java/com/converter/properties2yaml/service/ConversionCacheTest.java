@@ -0,0 +1,82 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Conversion Cache Tests")
+class ConversionCacheTest {
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @DisplayName("Should key entries by content and options and count hits and misses")
+    void shouldKeyByContentAndOptions(boolean offHeap) {
+        ConversionCache cache = new ConversionCache(1 << 20, offHeap);
+        ConversionOptions options = ConversionOptions.defaults();
+
+        ConversionCache.Key key = cache.key("a=1\n", options);
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, bytes("a: 1\n"));
+
+        assertThat(cache.get(cache.key(bytes("a=1\n"), options))).isEqualTo(bytes("a: 1\n"));
+        assertThat(cache.get(cache.key("a=1\n", options.withPreserveComments(true)))).isNull();
+        assertThat(cache.get(cache.key("a=2\n", options))).isNull();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(3);
+        assertThat(cache.isOffHeap()).isEqualTo(offHeap);
+    }
+
+    @Test
+    @DisplayName("Should find a document by the digest of its properties")
+    void shouldFindDocumentByDigest() throws Exception {
+        ConversionCache cache = new ConversionCache(1 << 20, false);
+        ConversionOptions options = ConversionOptions.defaults();
+        cache.put(cache.key("a=1\n", options), bytes("a: 1\n"));
+
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes("a=1\n"));
+        assertThat(cache.get(cache.digestKey(digest, options))).isEqualTo(bytes("a: 1\n"));
+        assertThat(cache.get(cache.digestKey(digest, options.withSourceOrder(true)))).isNull();
+        assertThat(cache.digestKey(new byte[20], options)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entries to stay within its size")
+    void shouldEvictLeastRecentlyUsed() {
+        ConversionCache cache = new ConversionCache(4096, false);
+        ConversionOptions options = ConversionOptions.defaults();
+        byte[] yaml = new byte[1000];
+
+        for (int i = 0; i < 3; i++) {
+            cache.put(cache.key("k=" + i, options), yaml);
+        }
+        cache.get(cache.key("k=0", options));
+        cache.put(cache.key("k=3", options), yaml);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(cache.maxBytes());
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.get(cache.key("k=1", options))).isNull();
+        assertThat(cache.get(cache.key("k=0", options))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should not key documents it cannot cache")
+    void shouldNotKeyUncacheableDocuments() {
+        ConversionCache cache = new ConversionCache(1600, false);
+        ConversionOptions options = ConversionOptions.defaults();
+
+        assertThat(cache.key("k=" + "v".repeat(100), options)).isNull();
+        assertThat(cache.key("k=\uD800", options)).isNull();
+        assertThat(cache.key("k=😀", options)).isNotNull();
+    }
+}
@@ -0,0 +1,65 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Key Order Tests")
+class KeyOrderTest {
+
+    @Test
+    @DisplayName("Should rank keys by the default prefix groups")
+    void shouldRankByDefaultGroups() {
+        KeyOrder order = KeyOrder.defaults();
+
+        assertThat(order.rank("spring.application.name")).isEqualTo(0);
+        assertThat(order.rank("server.port")).isEqualTo(1);
+        assertThat(order.rank("security.enabled")).isEqualTo(1);
+        assertThat(order.rank("application.title")).isEqualTo(2);
+        assertThat(order.rank("custom.value")).isEqualTo(3);
+        assertThat(order.rank("spring")).isEqualTo(3);
+        assertThat(order.rank("")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should sort by group and then alphabetically")
+    void shouldSortByGroupThenAlphabetically() {
+        List<String> keys = List.of("zeta", "app.name", "server.port", "alpha", "spring.b", "logging.level", "spring.a");
+
+        assertThat(KeyOrder.defaults().sort(keys, key -> key)).containsExactly(
+                "spring.a", "spring.b", "logging.level", "server.port", "app.name", "alpha", "zeta");
+    }
+
+    @Test
+    @DisplayName("Should keep the relative order of equal keys")
+    void shouldKeepEqualKeysStable() {
+        List<String[]> entries = List.of(new String[]{"b", "1"}, new String[]{"a", "2"}, new String[]{"b", "3"});
+
+        List<String[]> sorted = KeyOrder.defaults().sort(entries, entry -> entry[0]);
+
+        assertThat(sorted).extracting(entry -> entry[1]).containsExactly("2", "1", "3");
+    }
+
+    @Test
+    @DisplayName("Should parse custom groups and prefer the longest prefix")
+    void shouldParseCustomGroups() {
+        KeyOrder order = KeyOrder.parse(" db. , cache. ; db.pool. ;; ");
+
+        assertThat(order.rank("db.url")).isEqualTo(0);
+        assertThat(order.rank("cache.ttl")).isEqualTo(0);
+        assertThat(order.rank("db.pool.size")).isEqualTo(1);
+        assertThat(order.rank("spring.main")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep the first group of a repeated prefix")
+    void shouldKeepFirstGroupOfRepeatedPrefix() {
+        KeyOrder order = KeyOrder.of(List.of(List.of("a."), List.of("b.", "a.")));
+
+        assertThat(order.rank("a.x")).isEqualTo(0);
+        assertThat(order.rank("b.x")).isEqualTo(1);
+    }
+}
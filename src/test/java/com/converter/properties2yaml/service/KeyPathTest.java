@@ -0,0 +1,75 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Key Path Tokenizer Tests")
+class KeyPathTest {
+
+    private static String describe(KeyPath path) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < path.size(); i++) {
+            tokens.add(switch (path.kind(i)) {
+                case KEY -> path.segment(i);
+                case INDEX -> "#" + path.index(i);
+                case BRACKET_KEY -> "{" + path.segment(i) + "}";
+            });
+        }
+        return String.join(" ", tokens);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "server.port|server port",
+            "items[2]|items #2",
+            "users[0].roles[1]|users #0 roles #1",
+            "matrix[0][1]|matrix #0 #1",
+            "cube[1][2][3].value|cube #1 #2 #3 value",
+            "[/**]|{[/**]}",
+            "paths[/**].allowed|{paths[/**]} allowed",
+            "map[a.b].c|{map[a.b]} c",
+            "map[[x]]|{map[[x]]}",
+            "map[x][0]|{map[x]} #0",
+            "list[0][x]|list #0 {[x]}",
+            "list[-1]|{list[-1]}",
+            "list[99999999999]|{list[99999999999]}",
+            "a[0]b.c|{a[0]b} c",
+            "open[.x|open[ x",
+            "a]b|a]b"
+    })
+    @DisplayName("Should split keys into map keys, indices and bracket keys")
+    void shouldTokenizeKeys(String key, String tokens) {
+        assertThat(describe(new KeyPath().tokenize(key))).isEqualTo(tokens);
+    }
+
+    @Test
+    @DisplayName("Should treat empty segments like String.split")
+    void shouldTreatEmptySegmentsLikeSplit() {
+        KeyPath path = new KeyPath();
+
+        assertThat(path.tokenize("key.").size()).isEqualTo(1);
+        assertThat(path.tokenize(".key").size()).isEqualTo(2);
+        assertThat(path.segment(0)).isEmpty();
+        assertThat(path.tokenize("a..b").size()).isEqualTo(3);
+        assertThat(path.tokenize("").size()).isEqualTo(1);
+        assertThat(path.segment(0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reuse its buffers for keys with many segments")
+    void shouldGrowAndReuseBuffers() {
+        KeyPath path = new KeyPath();
+        String deep = "s.".repeat(20) + "leaf[3]";
+
+        assertThat(path.tokenize(deep).size()).isEqualTo(22);
+        assertThat(path.index(21)).isEqualTo(3);
+        assertThat(describe(path.tokenize("a.b"))).isEqualTo("a b");
+    }
+}
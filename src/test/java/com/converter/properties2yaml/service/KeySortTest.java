@@ -0,0 +1,81 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Key Sort Tests")
+class KeySortTest {
+
+    private static String[] sorted(String[] keys, int[] order) {
+        return Arrays.stream(order).mapToObj(i -> keys[i]).toArray(String[]::new);
+    }
+
+    private static int[] expected(String[] keys, int[] ranks) {
+        return IntStream.range(0, keys.length).boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> ranks[i]).thenComparing(i -> keys[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Test
+    @DisplayName("Should order segments exactly like String.compareTo")
+    void shouldMatchStringOrder() {
+        String[] keys = {"a.b", "a-b", "a/b", "a", "a.", "ab", "a.b.c", "a.b-c", "", ".a", "a b"};
+        int[] ranks = new int[keys.length];
+
+        String[] expected = keys.clone();
+        Arrays.sort(expected);
+
+        assertThat(sorted(keys, KeySort.sort(keys, ranks))).containsExactly(expected);
+    }
+
+    @Test
+    @DisplayName("Should sort by rank first and keep equal keys in input order")
+    void shouldSortByRankAndBeStable() {
+        String[] keys = {"b", "a", "b", "c", "a"};
+        int[] ranks = {1, 1, 1, 0, 1};
+
+        assertThat(KeySort.sort(keys, ranks)).containsExactly(3, 1, 4, 0, 2);
+    }
+
+    @Test
+    @DisplayName("Should match the comparator order on random keys sequentially and in parallel")
+    void shouldMatchComparatorOnRandomKeys() {
+        String[] segments = {"a", "ab", "abc", "a-b", "b", "spring", "x[0]", "", "é", "a!", "z"};
+        Random random = new Random(42);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 50; round++) {
+                int size = round % 5 == 0 ? 5000 : random.nextInt(300);
+                String[] keys = new String[size];
+                int[] ranks = new int[size];
+                for (int i = 0; i < size; i++) {
+                    StringBuilder key = new StringBuilder();
+                    int depth = 1 + random.nextInt(5);
+                    for (int s = 0; s < depth; s++) {
+                        if (s > 0) {
+                            key.append('.');
+                        }
+                        key.append(segments[random.nextInt(segments.length)]);
+                    }
+                    keys[i] = key.toString();
+                    ranks[i] = random.nextInt(3);
+                }
+
+                int[] expected = expected(keys, ranks);
+                assertThat(KeySort.sort(keys, ranks)).containsExactly(expected);
+                assertThat(KeySort.sort(keys, ranks, 32, pool)).containsExactly(expected);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
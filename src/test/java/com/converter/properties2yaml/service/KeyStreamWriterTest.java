@@ -0,0 +1,128 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Key Stream Writer Tests")
+class KeyStreamWriterTest {
+
+    /**
+     * Records sink events as a compact string.
+     */
+    private static final class RecordingSink implements YamlSink {
+
+        private final StringBuilder events = new StringBuilder();
+
+        @Override
+        public void begin() {
+            events.append("<");
+        }
+
+        @Override
+        public void startMap() {
+            events.append("{");
+        }
+
+        @Override
+        public void endMap() {
+            events.append("}");
+        }
+
+        @Override
+        public void startList() {
+            events.append("[");
+        }
+
+        @Override
+        public void endList() {
+            events.append("]");
+        }
+
+        @Override
+        public void key(String name) {
+            events.append(name).append("=");
+        }
+
+        @Override
+        public void element(int position) {
+            events.append("#").append(position).append("=");
+        }
+
+        @Override
+        public void scalar(byte type, long bits, String text) {
+            events.append(type == KeyTree.STRING ? text : Long.toString(bits)).append(";");
+        }
+
+        @Override
+        public void end() {
+            events.append(">");
+        }
+    }
+
+    private String stream(String... keys) throws IOException {
+        RecordingSink sink = new RecordingSink();
+        boolean written = KeyStreamWriter.write(keys.length, item -> keys[item], item -> "v",
+                new StringInterner(StringInterner.DEFAULT_CAPACITY), sink);
+        return written ? sink.events.toString() : null;
+    }
+
+    @Test
+    @DisplayName("Should open and close only the segments that change between keys")
+    void shouldStreamSortedKeys() throws IOException {
+        assertThat(stream("a.b.c", "a.b.d", "a.e", "f"))
+                .isEqualTo("<{a={b={c=v;d=v;}e=v;}f=v;}>");
+    }
+
+    @Test
+    @DisplayName("Should stream dense lists in index order")
+    void shouldStreamDenseLists() throws IOException {
+        assertThat(stream("items[0].name", "items[0].port", "items[1].name", "matrix[0][0]", "matrix[0][1]"))
+                .isEqualTo("<{items=[#0={name=v;port=v;}#1={name=v;}]matrix=[#0=[#0=v;#1=v;]]}>");
+    }
+
+    @Test
+    @DisplayName("Should stream an empty document")
+    void shouldStreamEmptyDocument() throws IOException {
+        assertThat(stream()).isEqualTo("<{}>");
+    }
+
+    @Test
+    @DisplayName("Should leave lists with gaps or out-of-order indices to the tree")
+    void shouldRejectSparseOrUnorderedLists() throws IOException {
+        assertThat(stream("items[0]", "items[2]")).isNull();
+        assertThat(stream("items[1]")).isNull();
+        assertThat(stream("items[0]", "items[1]", "items[10]", "items[2]")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should leave duplicate and conflicting keys to the tree")
+    void shouldRejectConflicts() throws IOException {
+        assertThat(stream("a", "a")).isNull();
+        assertThat(stream("a", "a.b")).isNull();
+        assertThat(stream("a.b", "a[0]")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should leave maps that are not visited in one run to the tree")
+    void shouldRejectSplitMaps() throws IOException {
+        assertThat(stream("a.x", "b", "a.y")).isNull();
+        assertThat(stream("list[0].a", "list[1].b", "list[0].c")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should write nothing when the keys cannot be streamed")
+    void shouldWriteNothingOnFallback() throws IOException {
+        RecordingSink sink = new RecordingSink();
+
+        String[] keys = {"a.b", "c", "a.d"};
+        boolean written = KeyStreamWriter.write(keys.length, item -> keys[item], item -> "v",
+                new StringInterner(StringInterner.DEFAULT_CAPACITY), sink);
+
+        assertThat(written).isFalse();
+        assertThat(sink.events).isEmpty();
+    }
+}
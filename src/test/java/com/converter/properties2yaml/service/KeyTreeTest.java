@@ -0,0 +1,172 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Key Tree Tests")
+class KeyTreeTest {
+
+    private final KeyPath path = new KeyPath();
+
+    private KeyTree treeOf(String... keysAndValues) {
+        KeyTree tree = new KeyTree();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            tree.put(path.tokenize(keysAndValues[i]), keysAndValues[i + 1]);
+        }
+        return tree;
+    }
+
+    /**
+     * Copies a node into plain maps and lists for comparison.
+     */
+    private static Object plain(KeyTree.Node node) {
+        if (node.isList()) {
+            List<Object> list = new ArrayList<>();
+            for (int i = 0; i < node.length(); i++) {
+                int slot = node.slotAt(i);
+                list.add(slot < 0 ? null : plain(node, slot));
+            }
+            return list;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int slot = 0; slot < node.size(); slot++) {
+            map.put(node.name(slot), plain(node, slot));
+        }
+        return map;
+    }
+
+    private static Object plain(KeyTree.Node node, int slot) {
+        return switch (node.type(slot)) {
+            case KeyTree.MAP, KeyTree.LIST -> plain(node.node(slot));
+            case KeyTree.STRING -> node.text(slot);
+            case KeyTree.BOOLEAN -> node.booleanValue(slot);
+            case KeyTree.INTEGER -> (int) node.longValue(slot);
+            case KeyTree.LONG -> node.longValue(slot);
+            case KeyTree.DOUBLE -> node.doubleValue(slot);
+            default -> null;
+        };
+    }
+
+    @Test
+    @DisplayName("Should store scalars in primitive slots")
+    void shouldStoreScalarsInPrimitiveSlots() {
+        KeyTree.Node root = treeOf("flag", "true", "port", "8080", "big", "9999999999",
+                "ratio", "0.75", "name", "demo", "blank", "").root();
+
+        assertThat(root.type(0)).isEqualTo(KeyTree.BOOLEAN);
+        assertThat(root.booleanValue(0)).isTrue();
+        assertThat(root.type(1)).isEqualTo(KeyTree.INTEGER);
+        assertThat(root.longValue(1)).isEqualTo(8080);
+        assertThat(root.type(2)).isEqualTo(KeyTree.LONG);
+        assertThat(root.longValue(2)).isEqualTo(9999999999L);
+        assertThat(root.type(3)).isEqualTo(KeyTree.DOUBLE);
+        assertThat(root.doubleValue(3)).isEqualTo(0.75);
+        assertThat(root.type(4)).isEqualTo(KeyTree.STRING);
+        assertThat(root.text(4)).isEqualTo("demo");
+        assertThat(root.text(5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep children in insertion order and find them again")
+    void shouldKeepInsertionOrder() {
+        KeyTree tree = new KeyTree();
+        for (int i = 20; i > 0; i--) {
+            tree.put(path.tokenize("group.k" + i + ".value"), "v" + i);
+        }
+        for (int i = 1; i <= 20; i++) {
+            tree.put(path.tokenize("group.k" + i + ".other"), "o" + i);
+        }
+
+        KeyTree.Node group = tree.root().node(0);
+        assertThat(group.size()).isEqualTo(20);
+        assertThat(group.name(0)).isEqualTo("k20");
+        assertThat(group.name(19)).isEqualTo("k1");
+        assertThat(group.node(0).size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should intern segment names across the tree")
+    void shouldInternSegmentNames() {
+        KeyTree.Node root = treeOf("a.host", "x", "b.host", "y").root();
+
+        assertThat(root.node(0).name(0)).isSameAs(root.node(1).name(0));
+    }
+
+    @Test
+    @DisplayName("Should hold the nested structure of maps and lists")
+    void shouldHoldNestedStructure() {
+        Object root = plain(treeOf("items[1].name", "b", "matrix[0][1]", "x", "port", "80").root());
+
+        assertThat(root).isEqualTo(Map.of(
+                "items", Arrays.asList(null, Map.of("name", "b")),
+                "matrix", List.of(Arrays.asList(null, "x")),
+                "port", 80));
+    }
+
+    @Test
+    @DisplayName("Should store only the list indices that are defined")
+    void shouldStoreSparseIndices() {
+        KeyTree tree = new KeyTree(ConversionOptions.defaults().withListGaps(ConversionOptions.ListGaps.COMPACT));
+        tree.put(path.tokenize("servers[5000000].host"), "x");
+        tree.put(path.tokenize("servers[3]"), "y");
+
+        KeyTree.Node servers = tree.root().node(0);
+        assertThat(servers.size()).isEqualTo(2);
+        assertThat(servers.length()).isEqualTo(2);
+        assertThat(servers.position(servers.slotAt(1))).isEqualTo(5000000);
+        assertThat(tree.retainedSize()).isLessThan(4096);
+    }
+
+    @Test
+    @DisplayName("Should apply the list gap policy when the tree is read")
+    void shouldApplyListGapPolicy() {
+        ConversionOptions options = ConversionOptions.defaults();
+        String[] keys = {"items[4]", "e", "items[0]", "a", "items[2]", "c"};
+
+        KeyTree compact = new KeyTree(options.withListGaps(ConversionOptions.ListGaps.COMPACT));
+        KeyTree nullFill = new KeyTree(options);
+        KeyTree bounded = new KeyTree(options.withMaxListGapFill(1));
+        KeyTree reject = new KeyTree(options.withListGaps(ConversionOptions.ListGaps.REJECT));
+        for (KeyTree tree : List.of(compact, nullFill, bounded, reject)) {
+            for (int i = 0; i < keys.length; i += 2) {
+                tree.put(path.tokenize(keys[i]), keys[i + 1]);
+            }
+        }
+
+        assertThat(plain(compact.root().node(0))).isEqualTo(List.of("a", "c", "e"));
+        assertThat(plain(nullFill.root().node(0))).isEqualTo(Arrays.asList("a", null, "c", null, "e"));
+        assertThatThrownBy(bounded::root)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limit of 1");
+        assertThatThrownBy(reject::root)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'items' has no element at index 1");
+    }
+
+    @Test
+    @DisplayName("Should reject a list index under a key that holds a value")
+    void shouldRejectListUnderValue() {
+        assertThatThrownBy(() -> treeOf("config.items", "simple", "config.items[0]", "array"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("config.items[0]");
+    }
+
+    @Test
+    @DisplayName("Should report a retained size that grows with the content")
+    void shouldReportRetainedSize() {
+        long small = treeOf("a", "1").retainedSize();
+        long large = treeOf("a", "1", "b.c.d", "some longer text value", "e[3]", "true").retainedSize();
+
+        assertThat(small).isPositive();
+        assertThat(large).isGreaterThan(small);
+    }
+}
@@ -0,0 +1,125 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Line Scanner Tests")
+class LineScannerTest {
+
+    private PropertiesSource source;
+
+    private LineScanner scannerFor(String content, boolean inlineComments) throws IOException {
+        source = PropertiesSource.of(new StringReader(content));
+        assertThat(source.nextLine()).isTrue();
+        return new LineScanner(source, inlineComments);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "key=value|key|value",
+            "key = value|key|value",
+            "key:value|key|value",
+            "key value|key|value",
+            "  key  =  value|key|value",
+            "key|key|''",
+            "key=|key|''",
+            "=value|''|value",
+            "a\\=b=c|a=b|c",
+            "key=a=b|key|a=b",
+            "key=x # not a comment|key|x # not a comment"
+    })
+    @DisplayName("Should split key and value like java.util.Properties")
+    void shouldSplitKeyAndValue(String line, String key, String value) throws IOException {
+        LineScanner scanner = scannerFor(line, false);
+
+        assertThat(scanner.scan()).isEqualTo(LineScanner.LineKind.PROPERTY);
+        assertThat(scanner.key()).isEqualTo(key);
+        assertThat(scanner.value()).isEqualTo(value);
+        assertThat(scanner.comment()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should recognise blank and comment lines")
+    void shouldRecogniseBlankAndCommentLines() throws IOException {
+        assertThat(scannerFor("   \t", true).scan()).isEqualTo(LineScanner.LineKind.BLANK);
+
+        LineScanner scanner = scannerFor("  !  legacy comment  ", true);
+        assertThat(scanner.scan()).isEqualTo(LineScanner.LineKind.COMMENT);
+        assertThat(scanner.comment()).isEqualTo("legacy comment");
+    }
+
+    @Test
+    @DisplayName("Should split off inline comments outside quotes")
+    void shouldSplitOffInlineComments() throws IOException {
+        LineScanner scanner = scannerFor("port=8080   # default port ", true);
+        scanner.scan();
+        assertThat(scanner.value()).isEqualTo("8080");
+        assertThat(scanner.comment()).isEqualTo("default port");
+
+        scanner = scannerFor("color=\"#fff\" # white", true);
+        scanner.scan();
+        assertThat(scanner.value()).isEqualTo("\"#fff\"");
+        assertThat(scanner.comment()).isEqualTo("white");
+
+        scanner = scannerFor("tag=\\#hash", true);
+        scanner.scan();
+        assertThat(scanner.value()).isEqualTo("#hash");
+        assertThat(scanner.comment()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should follow continuation lines in the same pass")
+    void shouldFollowContinuationLines() throws IOException {
+        LineScanner scanner = scannerFor("list=a, \\\n    b, \\\n    c\nnext=1", false);
+
+        assertThat(scanner.scan()).isEqualTo(LineScanner.LineKind.PROPERTY);
+        assertThat(scanner.value()).isEqualTo("a, b, c");
+        assertThat(scanner.continuations()).isEqualTo(2);
+
+        assertThat(source.nextLine()).isTrue();
+        scanner.scan();
+        assertThat(scanner.key()).isEqualTo("next");
+    }
+
+    @Test
+    @DisplayName("Should not continue on an escaped trailing backslash")
+    void shouldNotContinueOnEscapedBackslash() throws IOException {
+        LineScanner scanner = scannerFor("dir=C:\\\\\nnext=1", false);
+
+        scanner.scan();
+        assertThat(scanner.value()).isEqualTo("C:\\");
+        assertThat(scanner.continuations()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should decode unicode and control escapes")
+    void shouldDecodeEscapes() throws IOException {
+        LineScanner scanner = scannerFor("caf\\u00e9=line\\none\\ttab\\\\", false);
+
+        scanner.scan();
+        assertThat(scanner.key()).isEqualTo("café");
+        assertThat(scanner.value()).isEqualTo("line\none\ttab\\");
+    }
+
+    @Test
+    @DisplayName("Should continue a line that holds only a backslash or ends before the separator")
+    void shouldContinueBeforeKeyAndSeparator() throws IOException {
+        LineScanner scanner = scannerFor("  \\\n  # comment\nkey \\\n  = value", false);
+
+        assertThat(scanner.scan()).isEqualTo(LineScanner.LineKind.COMMENT);
+        assertThat(scanner.continuations()).isEqualTo(1);
+
+        assertThat(source.nextLine()).isTrue();
+        assertThat(scanner.scan()).isEqualTo(LineScanner.LineKind.PROPERTY);
+        assertThat(scanner.key()).isEqualTo("key");
+        assertThat(scanner.value()).isEqualTo("value");
+        assertThat(scanner.continuations()).isEqualTo(1);
+    }
+}
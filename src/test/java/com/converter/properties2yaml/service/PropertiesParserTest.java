@@ -0,0 +1,165 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Properties Parser Tests")
+class PropertiesParserTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final PropertiesParser sequentialParser = new PropertiesParser();
+    private final PropertiesParser parallelParser = new PropertiesParser(64, pool);
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdown();
+    }
+
+    private static String largeInput() {
+        StringBuilder builder = new StringBuilder("# Header\n# comment\n\n");
+        for (int i = 0; i < 500; i++) {
+            if (i % 7 == 0) {
+                builder.append("# comment for entry ").append(i).append('\n');
+            }
+            if (i % 11 == 0) {
+                builder.append("list").append(i).append(" = a, \\\n    b, \\\n    c\n");
+            } else if (i % 13 == 0) {
+                builder.append("\r\n");
+            }
+            builder.append("app.entry").append(i % 50).append('=').append(i);
+            if (i % 5 == 0) {
+                builder.append(" # inline ").append(i);
+            }
+            builder.append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        return builder.toString();
+    }
+
+    private static void assertSameEntries(PropertiesParser.ParseResult actual, PropertiesParser.ParseResult expected) {
+        assertThat(actual.headerComments()).isEqualTo(expected.headerComments());
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.key(i)).isEqualTo(expected.key(i));
+            assertThat(actual.value(i)).isEqualTo(expected.value(i));
+            assertThat(actual.precedingComments(i)).isEqualTo(expected.precedingComments(i));
+            assertThat(actual.inlineComment(i)).isEqualTo(expected.inlineComment(i));
+            assertThat(actual.lineNumber(i)).isEqualTo(expected.lineNumber(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse large strings in parallel exactly like sequentially")
+    void shouldParseStringsInParallelLikeSequentially() {
+        String content = largeInput();
+
+        assertSameEntries(parallelParser.parse(content, true), sequentialParser.parse(content, true));
+        assertSameEntries(parallelParser.parse(content, false), sequentialParser.parse(content, false));
+    }
+
+    @Test
+    @DisplayName("Should parse large files in parallel exactly like sequentially")
+    void shouldParseFilesInParallelLikeSequentially() throws IOException {
+        Path file = tempDir.resolve("large.properties");
+        Files.writeString(file, largeInput(), StandardCharsets.UTF_8);
+
+        assertSameEntries(parallelParser.parse(file, true), sequentialParser.parse(file, true));
+    }
+
+    @Test
+    @DisplayName("Should keep the last definition of a key across chunks")
+    void shouldKeepLastDefinitionAcrossChunks() {
+        String content = largeInput();
+
+        PropertiesParser.ParseResult result = parallelParser.parse(content, false);
+        int last = result.size() - 1;
+
+        assertThat(result.key(last)).isEqualTo("app.entry49");
+        assertThat(result.value(last)).isEqualTo("499");
+    }
+
+    @Test
+    @DisplayName("Should never split inside a continuation or a comment block")
+    void shouldNotSplitInsideContinuations() {
+        String content = "a=1\nb=2 \\\n  c=3 \\\n  d=4\n# x\ne=5\nf=6\n".repeat(40);
+
+        PropertiesParser.ParseResult result = parallelParser.parse(content, true);
+
+        assertThat(result.size()).isEqualTo(160);
+        assertThat(result.value(1)).isEqualTo("2 c=3 d=4");
+        assertThat(result.precedingComments(2)).containsExactly("x");
+        assertThat(result.lineNumber(159)).isEqualTo(39 * 7 + 7);
+    }
+
+    @Test
+    @DisplayName("Should keep comments in one arena with a range per entry")
+    void shouldKeepCommentRangesPerEntry() {
+        String content = "# Header\n\n# first\n# second\na=1 # inline\nb=2\n# third\n\nc=3\n";
+
+        PropertiesParser.ParseResult result = sequentialParser.parse(content, true);
+
+        assertThat(result.headerComments()).containsExactly("Header");
+        assertThat(result.precedingComments(0)).containsExactly("first", "second");
+        assertThat(result.inlineComment(0)).isEqualTo("inline");
+        assertThat(result.comments(0)).containsExactly("first", "second", "inline");
+        assertThat(result.hasComments(1)).isFalse();
+        assertThat(result.comments(2)).containsExactly("third");
+        assertThat(result.inlineComment(2)).isNull();
+        assertThat(result.lineNumber(2)).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should share one instance of common values across parses and sources")
+    void shouldShareCommonValues() throws IOException {
+        Path file = tempDir.resolve("common.properties");
+        Files.writeString(file, "a=true\nb=localhost\nc=0\n", StandardCharsets.UTF_8);
+
+        PropertiesParser.ParseResult fromString = sequentialParser.parse("x=true\ny=localhost\nz=0\n", false);
+        PropertiesParser.ParseResult fromFile = sequentialParser.parse(file, false);
+
+        for (int entry = 0; entry < 3; entry++) {
+            assertThat(fromFile.value(entry)).isSameAs(fromString.value(entry));
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode streamed files like mapped ones, line by line")
+    void shouldDecodeStreamedFilesLikeMapped() throws IOException {
+        Path file = tempDir.resolve("mixed.properties");
+        byte[] latin1 = "a=caf\u00e9\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] utf8 = "b=caf\u00e9 \\\n  \u65e5\u672c\rc=3".getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[latin1.length + utf8.length];
+        System.arraycopy(latin1, 0, content, 0, latin1.length);
+        System.arraycopy(utf8, 0, content, latin1.length, utf8.length);
+        Files.write(file, content);
+
+        try (PropertiesSource mapped = PropertiesSource.map(file);
+             PropertiesSource streamed = PropertiesSource.map(file, 0)) {
+            assertThat(streamed.size()).isEqualTo(-1);
+            for (String expected : new String[]{"a=caf\u00e9", "b=caf\u00e9 \u65e5\u672c", "c=3"}) {
+                assertThat(mapped.nextLine()).isTrue();
+                assertThat(streamed.nextLine()).isTrue();
+                if (expected.startsWith("b")) {
+                    assertThat(mapped.continueLine(mapped.length() - 1)).isTrue();
+                    assertThat(streamed.continueLine(streamed.length() - 1)).isTrue();
+                }
+                assertThat(mapped.text(0, mapped.length())).isEqualTo(expected);
+                assertThat(streamed.text(0, streamed.length())).isEqualTo(expected);
+            }
+            assertThat(mapped.nextLine()).isFalse();
+            assertThat(streamed.nextLine()).isFalse();
+        }
+    }
+}
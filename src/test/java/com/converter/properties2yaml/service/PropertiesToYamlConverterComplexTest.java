@@ -11,6 +11,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -131,6 +132,24 @@ class PropertiesToYamlConverterComplexTest {
             List<String> johnRoles = (List<String>) users.get(0).get("roles");
             assertThat(johnRoles).containsExactly("admin", "user");
         }
+
+        @Test
+        @DisplayName("Should produce nested lists for chained indices in both comment modes")
+        void shouldProduceNestedListsForChainedIndices() {
+            String properties = """
+                    matrix[0][0]=a
+                    matrix[0][1]=b
+                    matrix[1][0]=c
+                    routes[/api/**].filters[0]=auth
+                    """;
+
+            for (boolean preserveComments : new boolean[]{false, true}) {
+                Map<String, Object> parsed = yaml.load(converter.convert(properties, preserveComments));
+
+                assertThat(parsed.get("matrix")).isEqualTo(List.of(List.of("a", "b"), List.of("c")));
+                assertThat(parsed.get("routes[/api/**]")).isEqualTo(Map.of("filters", List.of("auth")));
+            }
+        }
     }
 
     // ==================== SPRING BOOT REALISTIC SCENARIOS ====================
@@ -499,6 +518,48 @@ class PropertiesToYamlConverterComplexTest {
             assertThat(yamlOutput).contains("key: value");
         }
 
+        @Test
+        @DisplayName("Should decode ISO-8859-1 and UTF-8 encoded files")
+        void shouldDecodeIso88591AndUtf8EncodedFiles(@TempDir Path tempDir) throws IOException {
+            Path latin1File = tempDir.resolve("latin1.properties");
+            Path utf8File = tempDir.resolve("utf8.properties");
+            Files.write(latin1File, "message=caf\u00e9".getBytes(StandardCharsets.ISO_8859_1));
+            Files.write(utf8File, "message=caf\u00e9 \u4f60\u597d".getBytes(StandardCharsets.UTF_8));
+
+            Map<String, Object> latin1 = yaml.load(converter.convertFile(latin1File));
+            Map<String, Object> utf8 = yaml.load(converter.convertFile(utf8File));
+
+            assertThat(latin1).containsEntry("message", "caf\u00e9");
+            assertThat(utf8).containsEntry("message", "caf\u00e9 \u4f60\u597d");
+        }
+
+        @Test
+        @DisplayName("Should convert files the same way as string content")
+        void shouldConvertFilesTheSameWayAsStringContent(@TempDir Path tempDir) throws IOException {
+            Path propertiesFile = tempDir.resolve("escapes.properties");
+            String content = "# header\r\n"
+                    + "unicode=\\u00e9t\\u00E9\r\n"
+                    + "spaced\\ key = padded value\n"
+                    + "colon\\:key:value\n"
+                    + "continued=first, \\\n"
+                    + "          second\n"
+                    + "path=C:\\\\temp\\\\\n"
+                    + "tabs=a\\tb\n";
+            Files.writeString(propertiesFile, content);
+
+            String fromFile = converter.convertFile(propertiesFile);
+
+            assertThat(fromFile).isEqualTo(converter.convert(content));
+            Map<String, Object> parsed = yaml.load(fromFile);
+            assertThat(parsed)
+                    .containsEntry("unicode", "\u00e9t\u00e9")
+                    .containsEntry("spaced key", "padded value")
+                    .containsEntry("colon:key", "value")
+                    .containsEntry("continued", "first, second")
+                    .containsEntry("path", "C:\\temp\\")
+                    .containsEntry("tabs", "a\tb");
+        }
+
         @Test
         @DisplayName("Should handle large file with many properties")
         void shouldHandleLargeFileWithManyProperties(@TempDir Path tempDir) throws IOException {
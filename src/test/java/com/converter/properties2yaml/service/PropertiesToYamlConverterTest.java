@@ -4,7 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -327,4 +332,185 @@ class PropertiesToYamlConverterTest {
         assertTrue(yaml.contains("nested:"));
         assertTrue(yaml.contains("deep:"));
     }
+
+    @Test
+    void testStreamingReaderToWriterMatchesStringConversion() {
+        String properties = """
+                # Server settings
+                server.port=8080
+                server.host=localhost
+                items[0]=first
+                items[1]=second
+                """;
+
+        for (boolean preserveComments : new boolean[]{false, true}) {
+            StringWriter writer = new StringWriter();
+            converter.convert(new StringReader(properties), writer,
+                    ConversionOptions.defaults().withPreserveComments(preserveComments));
+
+            assertEquals(converter.convert(properties, preserveComments), writer.toString());
+        }
+    }
+
+    @Test
+    void testStreamingInputStreamToOutputStream() {
+        String properties = "greeting.text=café\nserver.port=8080";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        converter.convert(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)), output,
+                ConversionOptions.defaults());
+
+        String yaml = output.toString(StandardCharsets.UTF_8);
+        assertTrue(yaml.contains("text: café"));
+        assertTrue(yaml.contains("port: 8080"));
+    }
+
+    @Test
+    void testSourceOrderKeepsFirstAppearance() {
+        String properties = """
+                # Custom first
+                zeta.name=last
+                server.port=8080
+                zeta.port=9090
+                app.items[1]=b
+                app.items[0]=a
+                server.port=8081
+                """;
+        ConversionOptions options = ConversionOptions.defaults().withSourceOrder(true);
+
+        String expected = """
+                zeta:
+                  name: last
+                  port: 9090
+                server:
+                  port: 8081
+                app:
+                  items:
+                    - a
+                    - b
+                """;
+        assertEquals(expected, converter.convert(properties, options));
+
+        StringWriter writer = new StringWriter();
+        converter.convert(new StringReader(properties), writer, options);
+        assertEquals(expected, writer.toString());
+
+        String withComments = converter.convert(properties, options.withPreserveComments(true));
+        assertTrue(withComments.indexOf("zeta:") < withComments.indexOf("server:"));
+        assertTrue(withComments.contains("# Custom first"));
+    }
+
+    @Test
+    void testBuiltInEmitterMatchesSnakeYaml() {
+        String properties = """
+                spring.application.name=demo
+                app.servers[0].host=a.example.com
+                app.servers[1].host=b.example.com
+                app.message=Hello: world
+                app.multiline=first\\nsecond
+                app.enabled=yes
+                app.empty=
+                """;
+        ConversionOptions options = ConversionOptions.defaults();
+
+        String builtIn = converter.convert(properties, options);
+
+        assertEquals(converter.convert(properties, options.withSnakeYamlEmitter(true)), builtIn);
+        assertTrue(builtIn.contains("message: 'Hello: world'"));
+        assertTrue(builtIn.contains("multiline: |-\n    first\n    second"));
+    }
+
+    @Test
+    void testAllEntryPointsParseAlike(@TempDir Path tempDir) throws IOException {
+        String properties = """
+                # Header
+
+                app.name = caf\\u00e9
+                app.path=C:\\\\temp
+                app.list=a, \\
+                    b
+                app.name=final
+                """;
+        String expected = """
+                app:
+                  list: a, b
+                  name: final
+                  path: C:\\temp
+                """;
+
+        assertEquals(expected, converter.convert(properties));
+
+        Path propertiesFile = tempDir.resolve("test.properties");
+        Files.writeString(propertiesFile, properties);
+        assertEquals(expected, converter.convertFile(propertiesFile));
+
+        String withComments = converter.convert(properties, true);
+        assertTrue(withComments.contains("  list: a, b\n"));
+        assertTrue(withComments.contains("  name: final\n"));
+        assertTrue(withComments.contains("  path: \"C:\\\\temp\"\n"));
+    }
+
+    @Test
+    void testCachedResultsAreServedAcrossEntryPoints() {
+        ConversionCache cache = new ConversionCache(1 << 20, false);
+        PropertiesToYamlConverter cached = new PropertiesToYamlConverter(KeyOrder.defaults(),
+                new StringInterner(StringInterner.DEFAULT_CAPACITY), cache);
+        String properties = "server.port=8080\napp.name=caf\u00e9\n";
+        ConversionOptions options = ConversionOptions.defaults();
+
+        String expected = converter.convert(properties, options);
+        assertEquals(expected, cached.convert(properties, options));
+        assertEquals(expected, cached.convert(properties, options));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        cached.convert(properties.getBytes(StandardCharsets.UTF_8), output, options);
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+
+        assertEquals(converter.convert(properties, true), cached.convert(properties, true));
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testStreamedConversionsFillTheCache() {
+        ConversionCache cache = new ConversionCache(1 << 20, false);
+        PropertiesToYamlConverter cached = new PropertiesToYamlConverter(KeyOrder.defaults(),
+                new StringInterner(StringInterner.DEFAULT_CAPACITY), cache);
+        String properties = "server.port=8080\napp.name=caf\u00e9\n";
+        ConversionOptions options = ConversionOptions.defaults();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        cached.convert(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)), output, options);
+        assertEquals(converter.convert(properties, options), output.toString(StandardCharsets.UTF_8));
+        assertEquals(0, cache.hitCount() + cache.missCount());
+        assertEquals(1, cache.size());
+
+        assertEquals(output.toString(StandardCharsets.UTF_8), cached.convert(properties, options));
+        assertEquals(1, cache.hitCount());
+
+        // Larger than an entry: converted as it streams and not stored
+        String large = "key=" + "v".repeat((int) cache.maxEntryBytes()) + "\n";
+        output.reset();
+        cached.convert(new ByteArrayInputStream(large.getBytes(StandardCharsets.UTF_8)), output, options);
+        assertEquals(converter.convert(large, options), output.toString(StandardCharsets.UTF_8));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testTrailingWhitespaceAndBareKeysAreKept() {
+        String properties = "port=8080 \nname=hello   \nenabled\n";
+
+        assertEquals("enabled: ''\nname: 'hello   '\nport: '8080 '\n", converter.convert(properties));
+        assertEquals("enabled: \"\"\n\nname: \"hello   \"\n\nport: \"8080 \"\n", converter.convert(properties, true));
+    }
+
+    @Test
+    void testPaddedNumbersAreStrings() {
+        // Unpadded values keep their types
+        assertEquals("count: 3\nport: 8080\nratio: 1.5\n", converter.convert("port=8080\nratio=1.5\ncount=3\n"));
+
+        // Padded numbers used to become floats (port: 8080.0, ratio: 1.5) and are now kept as written
+        assertEquals("port: '8080 '\nratio: \"1.5\\t\"\n", converter.convert("port=8080 \nratio=1.5\t\n"));
+    }
 }
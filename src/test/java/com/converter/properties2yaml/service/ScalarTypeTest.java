@@ -0,0 +1,59 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+@DisplayName("Scalar Type Classification Tests")
+class ScalarTypeTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"true", "false", "TRUE", "False"})
+    @DisplayName("Should classify boolean literals")
+    void shouldClassifyBooleans(String value) {
+        assertThat(ScalarType.classify(value)).isEqualTo(ScalarType.BOOLEAN);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "42", "-42", "+7", "01234", "2147483647", "-2147483648"})
+    @DisplayName("Should classify values that fit in an int")
+    void shouldClassifyIntegers(String value) {
+        assertThat(ScalarType.classify(value)).isEqualTo(ScalarType.INTEGER);
+        assertThatCode(() -> Integer.parseInt(value)).doesNotThrowAnyException();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2147483648", "-2147483649", "9223372036854775807", "-9223372036854775808"})
+    @DisplayName("Should classify values that only fit in a long")
+    void shouldClassifyLongs(String value) {
+        assertThat(ScalarType.classify(value)).isEqualTo(ScalarType.LONG);
+        assertThatCode(() -> Long.parseLong(value)).doesNotThrowAnyException();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"3.14", "-0.5", ".5", "5.", "1.0E10", "1e-10", "2f", "3.5D",
+            "NaN", "-Infinity", "9223372036854775808", "99999999999999999999"})
+    @DisplayName("Should classify values accepted by Double.parseDouble")
+    void shouldClassifyDoubles(String value) {
+        assertThat(ScalarType.classify(value)).isEqualTo(ScalarType.DOUBLE);
+        assertThatCode(() -> Double.parseDouble(value)).doesNotThrowAnyException();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "localhost", "1.0.0", "192.168.1.1", "+1-555-123-4567", "-", "+", ".",
+            "1e", "1e+", "e5", "12ab", "https://example.com:8443", "com.example.Main", "nan", "Inf", "truthy"})
+    @DisplayName("Should classify everything else as string")
+    void shouldClassifyStrings(String value) {
+        assertThat(ScalarType.classify(value)).isEqualTo(ScalarType.STRING);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1 ", " 42 ", "-1 ", "1.5\t", "true ", "NaN "})
+    @DisplayName("Should classify values with surrounding whitespace as string")
+    void shouldClassifyPaddedValuesAsStrings(String value) {
+        assertThat(ScalarType.classify(value)).isEqualTo(ScalarType.STRING);
+    }
+}
@@ -0,0 +1,57 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("String Interner Tests")
+class StringInternerTest {
+
+    @Test
+    @DisplayName("Should return one instance of a segment cut from different keys")
+    void shouldShareSegments() {
+        StringInterner interner = new StringInterner(64);
+
+        String first = interner.intern("spring.datasource.url", 7, 17);
+        String second = interner.intern(new String("app.datasource"), 4, 14);
+
+        assertThat(first).isEqualTo("datasource").isSameAs(second);
+        assertThat(interner.hitCount()).isEqualTo(1);
+        assertThat(interner.missCount()).isEqualTo(1);
+        assertThat(interner.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Should keep at most its capacity and still return equal segments")
+    void shouldStayBounded() {
+        StringInterner interner = new StringInterner(16);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "key" + i + ".value";
+            assertThat(interner.intern(key, 0, key.indexOf('.'))).isEqualTo("key" + i);
+        }
+
+        assertThat(interner.capacity()).isEqualTo(16);
+        assertThat(interner.missCount()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should not intern long segments")
+    void shouldSkipLongSegments() {
+        StringInterner interner = new StringInterner(16);
+        String key = "x".repeat(StringInterner.MAX_LENGTH + 1);
+
+        assertThat(interner.intern(key, 0, key.length())).isEqualTo(key);
+        assertThat(interner.intern(key, 0, key.length())).isEqualTo(key);
+        assertThat(interner.hitCount() + interner.missCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should round the capacity up and reject non-positive capacities")
+    void shouldValidateCapacity() {
+        assertThat(new StringInterner(1000).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new StringInterner(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,157 @@
+package com.converter.properties2yaml.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("YAML Emitter Tests")
+class YamlEmitterTest {
+
+    private interface Document {
+        void write(YamlSink sink) throws IOException;
+    }
+
+    private static String emit(YamlSink sink, StringWriter writer, Document document) throws IOException {
+        sink.begin();
+        document.write(sink);
+        sink.end();
+        writer.flush();
+        return writer.toString();
+    }
+
+    private static String emit(Document document) throws IOException {
+        StringWriter writer = new StringWriter();
+        return emit(new YamlEmitter(writer), writer, document);
+    }
+
+    private static String snakeYaml(Document document) throws IOException {
+        StringWriter writer = new StringWriter();
+        return emit(new SnakeYamlSink(writer), writer, document);
+    }
+
+    private static Document map(String... keysAndValues) {
+        return sink -> {
+            sink.startMap();
+            for (int i = 0; i < keysAndValues.length; i += 2) {
+                sink.key(keysAndValues[i]);
+                sink.scalar(KeyTree.STRING, 0, keysAndValues[i + 1]);
+            }
+            sink.endMap();
+        };
+    }
+
+    @Test
+    @DisplayName("Should write nested maps and lists in block style")
+    void shouldWriteBlockCollections() throws IOException {
+        String yaml = emit(sink -> {
+            sink.startMap();
+            sink.key("app");
+            sink.startMap();
+            sink.key("items");
+            sink.startList();
+            sink.element(0);
+            sink.scalar(KeyTree.STRING, 0, "a");
+            sink.element(-1);
+            sink.scalar(KeyTree.NULL, 0, null);
+            sink.element(2);
+            sink.startMap();
+            sink.key("port");
+            sink.scalar(KeyTree.INTEGER, 8080, null);
+            sink.key("debug");
+            sink.scalar(KeyTree.BOOLEAN, 1, null);
+            sink.endMap();
+            sink.endList();
+            sink.endMap();
+            sink.endMap();
+        });
+
+        assertThat(yaml).isEqualTo("""
+                app:
+                  items:
+                    - a
+                    - null
+                    - port: 8080
+                      debug: true
+                """);
+    }
+
+    @Test
+    @DisplayName("Should write empty collections in flow style")
+    void shouldWriteEmptyCollections() throws IOException {
+        assertThat(emit(map())).isEqualTo("{\n  }\n");
+    }
+
+    @Test
+    @DisplayName("Should quote strings that would read back as another type or break the syntax")
+    void shouldQuoteAmbiguousStrings() throws IOException {
+        String yaml = emit(map("a", "true", "b", "8080", "c", "", "d", "x: y", "e", "- item", "f", "007",
+                "g", "tab\there", "h", "it's", "i", "plain text"));
+
+        assertThat(yaml).isEqualTo("""
+                a: 'true'
+                b: '8080'
+                c: ''
+                d: 'x: y'
+                e: '- item'
+                f: '007'
+                g: "tab\\there"
+                h: it's
+                i: plain text
+                """);
+    }
+
+    @Test
+    @DisplayName("Should write multi-line strings as literal blocks and non-printable ones as binary")
+    void shouldWriteLiteralAndBinaryScalars() throws IOException {
+        assertThat(emit(map("text", "line one\nline two\n\n", "raw", "\u0001")))
+                .isEqualTo("text: |+\n  line one\n  line two\n\nraw: !!binary |-\n  AQ==\n");
+    }
+
+    @Test
+    @DisplayName("Should match SnakeYAML for long, multi-line and special keys and values")
+    void shouldMatchSnakeYaml() throws IOException {
+        String longText = "word ".repeat(40).trim();
+        List<Document> documents = List.of(
+                map("k".repeat(130), "v", "multi\nline", "v", "", "empty key"),
+                map("plain", longText, "single", "'" + longText, "double", "\t" + longText),
+                map("unicode", "café\u00A0\u2028 😀", "indicators", "#,[]{}&*!|>'\"%@`", "dashes", "--- x"),
+                map("numbers", "1_000", "float", ".5", "time", "2001-12-14", "null", "~", "bool", "off"),
+                sink -> {
+                    sink.startMap();
+                    sink.key("list");
+                    sink.startList();
+                    sink.element(0);
+                    sink.startList();
+                    sink.element(0);
+                    sink.scalar(KeyTree.DOUBLE, Double.doubleToRawLongBits(1.5e-7), null);
+                    sink.endList();
+                    sink.element(1);
+                    sink.startMap();
+                    sink.endMap();
+                    sink.element(2);
+                    sink.scalar(KeyTree.STRING, 0, "a\nb");
+                    sink.endList();
+                    sink.key("long");
+                    sink.scalar(KeyTree.LONG, Long.MIN_VALUE, null);
+                    sink.endMap();
+                });
+
+        for (Document document : documents) {
+            assertThat(emit(document)).isEqualTo(snakeYaml(document));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject strings with unpaired surrogates")
+    void shouldRejectUnpairedSurrogates() {
+        assertThatThrownBy(() -> emit(map("a", "x\uD800")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unpaired surrogate");
+    }
+}